@@ -14,6 +14,7 @@ import com.neostudios.starlight.neolight.FadeTransition;
 import com.neostudios.starlight.neolight.InputManager;
 import com.neostudios.starlight.neolight.NeoLightEngine;
 import com.neostudios.starlight.neolight.SceneManager;
+import com.neostudios.starlight.neolight.TextureAtlas;
 
 public class App extends JPanel implements com.neostudios.starlight.neolight.NeoLightGame {
     private static final String CONFIG_PATH = "/assets/game.properties";
@@ -72,7 +73,10 @@ public class App extends JPanel implements com.neostudios.starlight.neolight.Neo
     }
 
     /**
-     * Loads textures using getResourceAsStream for JAR compatibility.
+     * Loads textures using getResourceAsStream for JAR compatibility,
+     * then packs them into a texture atlas so sprites share a few images.
+     * Sprites are scaled to the size the scene draws them at before packing, so the scene
+     * draws the atlas regions themselves rather than separately scaled copies.
      */
     private void loadTextures() {
         String[] textureFiles = {
@@ -88,17 +92,36 @@ public class App extends JPanel implements com.neostudios.starlight.neolight.Neo
             "assets/textures/floor.png"
         };
 
+        Map<String, Integer> drawSizes = new HashMap<>();
+        drawSizes.put("player.png", playerSize);
+        drawSizes.put("enemy.png", playerSize);
+        drawSizes.put("bullet.png", StarlightScene.BULLET_SIZE);
+        drawSizes.put("ui_heart.png", StarlightScene.HEART_SIZE);
+        drawSizes.put("wall.png", StarlightScene.TILE_SIZE);
+        drawSizes.put("floor.png", StarlightScene.TILE_SIZE);
+
+        Map<String, BufferedImage> loaded = new HashMap<>();
         for (String file : textureFiles) {
             try {
                 BufferedImage img = assetManager.loadImageAsync(file).get();
                 if (img != null) {
-                    textures.put(file.substring(file.lastIndexOf('/') + 1), img);
+                    String name = file.substring(file.lastIndexOf('/') + 1);
+                    Integer size = drawSizes.get(name);
+                    if (size != null) {
+                        img = assetManager.getScaledImage(img, size, size);
+                    }
+                    loaded.put(name, img);
                 }
             } catch (Exception e) {
                 System.err.println("Failed to load texture: " + file);
                 e.printStackTrace();
             }
         }
+
+        TextureAtlas atlas = assetManager.packAtlas(loaded);
+        for (TextureAtlas.Region region : atlas.getRegions().values()) {
+            textures.put(region.getName(), region.getImage());
+        }
     }
 
     @Override
@@ -1,17 +1,52 @@
 package com.neostudios.starlight;
 
 import java.awt.Color;
+import java.awt.Font;
 import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.util.Map;
 
+import com.neostudios.starlight.neolight.AssetManager;
+import com.neostudios.starlight.neolight.Camera;
 import com.neostudios.starlight.neolight.InputManager;
+import com.neostudios.starlight.neolight.RenderLayer;
 import com.neostudios.starlight.neolight.Scene;
+import com.neostudios.starlight.neolight.SpriteBatch;
+import com.neostudios.starlight.neolight.TextCache;
+import com.neostudios.starlight.neolight.lighting.LightMap;
+import com.neostudios.starlight.neolight.tilemap.TileMap;
+import com.neostudios.starlight.neolight.tilemap.TileMapRenderer;
+import com.neostudios.starlight.neolight.tilemap.TileSet;
 
 /**
  * Main scene for Project Starlight, handles all rendering and update logic for the game.
  */
 public class StarlightScene extends Scene {
+    // Sprite draw layers
+    private static final int LAYER_OBJECTS = 1;
+    private static final int LAYER_PLAYER = 2;
+    // Drawn sizes of textures; App packs them into the atlas at these sizes
+    static final int BULLET_SIZE = 16;
+    static final int HEART_SIZE = 20;
+    // Level tiles
+    static final int TILE_SIZE = 32;
+    private static final int CHUNK_SIZE = 16;
+    private static final short TILE_FLOOR = 1;
+    private static final short TILE_WALL = 2;
+    // Level size in tiles; larger than the screen, the camera follows the player
+    private static final int LEVEL_COLUMNS = 64;
+    private static final int LEVEL_ROWS = 48;
+    private static final Font MENU_FONT = new Font("Arial", Font.BOLD, 24);
+    private static final Font PAUSE_FONT = new Font("Arial", Font.BOLD, 36);
+    private static final Font HUD_FONT = new Font("Arial", Font.PLAIN, 16);
+    private static final Color PAUSE_OVERLAY_COLOR = new Color(0, 0, 0, 128);
+    // Level lighting
+    private static final Color AMBIENT_LIGHT = new Color(60, 60, 80);
+    private static final Color PLAYER_LIGHT = new Color(255, 230, 190);
+    private static final Color BULLET_LIGHT = new Color(255, 200, 80);
+    private static final Color ENEMY_LIGHT = new Color(255, 80, 60);
+
     private final GameStateManager gameStateManager;
     private final InputManager inputManager;
     private final Map<String, BufferedImage> textures;
@@ -21,6 +56,15 @@ public class StarlightScene extends Scene {
     private Enemy demoEnemy;
     private Bullet demoBullet;
     private boolean isPaused;
+    private final SpriteBatch spriteBatch = new SpriteBatch();
+    // Sprites are pre-scaled once through the asset cache rather than on every draw; textures
+    // already packed at their drawn size come back as their shared atlas region
+    private final AssetManager assetManager = AssetManager.getInstance();
+    private final TextCache textCache = TextCache.getInstance();
+    private TileMapRenderer levelRenderer;
+    private LightMap levelLights;
+    // Painted once and reused every frame; hidden in game when the level covers the screen
+    private final RenderLayer backgroundLayer = new RenderLayer(this::paintBackground, true, true);
 
     public StarlightScene(GameStateManager gsm, InputManager inputManager, Map<String, BufferedImage> textures, int playerX, int playerY, int playerSize, int moveSpeed) {
         this.gameStateManager = gsm;
@@ -31,6 +75,8 @@ public class StarlightScene extends Scene {
         this.playerSize = playerSize;
         this.moveSpeed = moveSpeed;
         this.isPaused = false;
+        spriteBatch.setCamera(getCamera());
+        addLayer(backgroundLayer);
     }
 
     @Override
@@ -43,6 +89,10 @@ public class StarlightScene extends Scene {
     @Override
     public void onEnter() {
         isPaused = false;
+        if (levelRenderer == null) {
+            levelRenderer = createLevel();
+        }
+        updateBackground();
         // Start any background music or ambient sounds
     }
 
@@ -87,6 +137,12 @@ public class StarlightScene extends Scene {
             if (inputManager.isKeyPressed(java.awt.event.KeyEvent.VK_DOWN)) {
                 playerY += moveSpeed * deltaTime * 60;
             }
+            if (levelRenderer != null) {
+                // Stay inside the level walls
+                playerX = Math.max(TILE_SIZE, Math.min(playerX, (LEVEL_COLUMNS - 1) * TILE_SIZE - playerSize));
+                playerY = Math.max(TILE_SIZE, Math.min(playerY, (LEVEL_ROWS - 1) * TILE_SIZE - playerSize));
+            }
+            getCamera().centerOn(playerX + playerSize / 2.0, playerY + playerSize / 2.0);
             
             // Update game objects
             demoEnemy.update(deltaTime);
@@ -99,19 +155,33 @@ public class StarlightScene extends Scene {
         } else if (state == GameState.PAUSED && inputManager.isKeyPressed(java.awt.event.KeyEvent.VK_P)) {
             gameStateManager.setState(GameState.PLAYING);
         }
+
+        updateBackground();
+        updateLighting();
+
+        // Gameplay changes every frame; menu and pause screens only when the state changes
+        if (state == GameState.PLAYING || gameStateManager.getCurrentState() != state) {
+            invalidateAll();
+        }
     }
 
     @Override
     public void render(Graphics2D g) {
-        // Clear the screen
-        g.setColor(Color.BLACK);
-        g.fillRect(0, 0, getWidth(), getHeight());
-
+        // The background layer, or the engine's clear, is already beneath this
+        // In game the engine applies the level lights after this
         GameState state = gameStateManager.getCurrentState();
         if (state == GameState.MENU) {
             renderMenu(g);
         } else if (state == GameState.PLAYING || state == GameState.PAUSED) {
             renderGame(g);
+        }
+    }
+
+    @Override
+    public void renderOverlay(Graphics2D g) {
+        GameState state = gameStateManager.getCurrentState();
+        if (state == GameState.PLAYING || state == GameState.PAUSED) {
+            renderUI(g);
             if (state == GameState.PAUSED) {
                 renderPauseOverlay(g);
             }
@@ -119,80 +189,134 @@ public class StarlightScene extends Scene {
     }
 
     private void renderMenu(Graphics2D g) {
-        // Render menu background
-        if (textures.containsKey("background.png")) {
-            g.drawImage(textures.get("background.png"), 0, 0, getWidth(), getHeight(), null);
-        }
-
         // Render menu text
-        g.setColor(Color.WHITE);
-        g.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 24));
-        String title = "Project Starlight";
-        String startText = "Press ENTER to Start";
+        TextCache.CachedText title = textCache.get("Project Starlight", MENU_FONT, Color.WHITE);
+        TextCache.CachedText startText = textCache.get("Press ENTER to Start", MENU_FONT, Color.WHITE);
         
-        int titleWidth = g.getFontMetrics().stringWidth(title);
-        int startWidth = g.getFontMetrics().stringWidth(startText);
-        
-        g.drawString(title, (getWidth() - titleWidth) / 2, getHeight() / 3);
-        g.drawString(startText, (getWidth() - startWidth) / 2, getHeight() * 2 / 3);
+        title.draw(g, (getWidth() - title.getWidth()) / 2, getHeight() / 3);
+        startText.draw(g, (getWidth() - startText.getWidth()) / 2, getHeight() * 2 / 3);
     }
 
     private void renderGame(Graphics2D g) {
-        // Render game background
-        if (textures.containsKey("background.png")) {
-            g.drawImage(textures.get("background.png"), 0, 0, getWidth(), getHeight(), null);
+        // The level and game objects are drawn in world space, through the camera
+        Camera camera = getCamera();
+        AffineTransform screenTransform = camera.apply(g);
+        if (levelRenderer != null) {
+            levelRenderer.render(g, camera);
         }
 
         // Render game objects
-        demoEnemy.render(g);
-        demoBullet.render(g);
+        demoEnemy.render(g, spriteBatch);
+        demoBullet.render(g, spriteBatch);
 
         // Render player
         if (textures.containsKey("player.png")) {
-            g.drawImage(textures.get("player.png"), playerX, playerY, playerSize, playerSize, null);
+            spriteBatch.draw(scaled("player.png", playerSize, playerSize), playerX, playerY, playerSize, playerSize, LAYER_PLAYER);
         } else {
             g.setColor(Color.BLUE);
             g.fillRect(playerX, playerY, playerSize, playerSize);
         }
+        spriteBatch.flush(g);
+        g.setTransform(screenTransform);
+    }
+
+    /**
+     * Shows the background layer in the menu, and in game when there are no level tiles.
+     */
+    private void updateBackground() {
+        boolean visible = gameStateManager.getCurrentState() == GameState.MENU || levelRenderer == null;
+        backgroundLayer.setVisible(visible);
+    }
+
+    private void paintBackground(Graphics2D g) {
+        BufferedImage background = textures.get("background.png");
+        if (background != null) {
+            g.drawImage(background, 0, 0, getWidth(), getHeight(), null);
+        }
+    }
+
+    /**
+     * Lights the level in game and leaves the menu unlit. Done here rather than in render(),
+     * which runs once per dirty region and would rebuild the light map each time.
+     */
+    private void updateLighting() {
+        GameState state = gameStateManager.getCurrentState();
+        setLightMap(state == GameState.MENU ? null : levelLights);
+        if (levelLights != null && state == GameState.PLAYING) {
+            updateLights(getCamera());
+        }
+    }
 
-        // Render UI
-        renderUI(g);
+    /**
+     * Places the lights at the player and game objects, in screen coordinates.
+     */
+    private void updateLights(Camera camera) {
+        levelLights.clearLights();
+        addLight(camera, playerX + playerSize / 2f, playerY + playerSize / 2f, 220, PLAYER_LIGHT, 1.0f);
+        addLight(camera, demoBullet.x + BULLET_SIZE / 2f, demoBullet.y + BULLET_SIZE / 2f, 60, BULLET_LIGHT, 0.8f);
+        addLight(camera, demoEnemy.x + playerSize / 2f, demoEnemy.y + playerSize / 2f, 90, ENEMY_LIGHT, 0.6f);
+    }
+
+    private void addLight(Camera camera, float worldX, float worldY, float radius, Color color, float intensity) {
+        float zoom = (float) camera.getZoom();
+        levelLights.addLight((float) camera.worldToScreenX(worldX), (float) camera.worldToScreenY(worldY),
+            radius * zoom, color, intensity);
     }
 
     private void renderPauseOverlay(Graphics2D g) {
         // Semi-transparent overlay
-        g.setColor(new Color(0, 0, 0, 128));
+        g.setColor(PAUSE_OVERLAY_COLOR);
         g.fillRect(0, 0, getWidth(), getHeight());
 
         // Pause text
-        g.setColor(Color.WHITE);
-        g.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 36));
-        String pauseText = "PAUSED";
-        int textWidth = g.getFontMetrics().stringWidth(pauseText);
-        g.drawString(pauseText, (getWidth() - textWidth) / 2, getHeight() / 2);
+        TextCache.CachedText pauseText = textCache.get("PAUSED", PAUSE_FONT, Color.WHITE);
+        pauseText.draw(g, (getWidth() - pauseText.getWidth()) / 2, getHeight() / 2);
     }
 
     private void renderUI(Graphics2D g) {
         // Render health
         if (textures.containsKey("ui_heart.png")) {
-            BufferedImage heart = textures.get("ui_heart.png");
+            BufferedImage heart = scaled("ui_heart.png", HEART_SIZE, HEART_SIZE);
             for (int i = 0; i < 3; i++) {
-                g.drawImage(heart, 10 + i * 30, 10, 20, 20, null);
+                g.drawImage(heart, 10 + i * 30, 10, null);
             }
         }
 
         // Render score
-        g.setColor(Color.WHITE);
-        g.setFont(new java.awt.Font("Arial", java.awt.Font.PLAIN, 16));
-        g.drawString("Score: 0", getWidth() - 100, 30);
+        textCache.drawString(g, "Score: 0", HUD_FONT, Color.WHITE, getWidth() - 100, 30);
+    }
+
+    /**
+     * Builds the level tile map, a floor surrounded by walls, and its lighting.
+     * @return The level renderer, or null if the tile textures are missing
+     */
+    private TileMapRenderer createLevel() {
+        if (!textures.containsKey("floor.png") || !textures.containsKey("wall.png")) {
+            return null;
+        }
+        TileSet tileSet = new TileSet(TILE_SIZE);
+        tileSet.setTile(TILE_FLOOR, textures.get("floor.png"));
+        tileSet.setTile(TILE_WALL, textures.get("wall.png"));
+
+        TileMap map = new TileMap(LEVEL_COLUMNS, LEVEL_ROWS, TILE_SIZE, CHUNK_SIZE);
+        map.fill(0, 0, LEVEL_COLUMNS, LEVEL_ROWS, TILE_WALL);
+        map.fill(1, 1, LEVEL_COLUMNS - 2, LEVEL_ROWS - 2, TILE_FLOOR);
+        getCamera().setWorldBounds(map.getPixelWidth(), map.getPixelHeight());
+        levelLights = new LightMap(getWidth(), getHeight());
+        levelLights.setAmbient(AMBIENT_LIGHT);
+        return new TileMapRenderer(map, tileSet);
+    }
+
+    private BufferedImage scaled(String texture, int width, int height) {
+        return assetManager.getScaledImage(textures.get(texture), width, height);
     }
 
     private int getWidth() {
-        return 800; // TODO: Get from engine
+        return getCamera().getViewportWidth();
     }
 
     private int getHeight() {
-        return 600; // TODO: Get from engine
+        return getCamera().getViewportHeight();
     }
 
     // --- Game object classes (should be moved to their own files for larger projects) ---
@@ -204,9 +328,9 @@ public class StarlightScene extends Scene {
             this.y = y;
             this.texture = texture;
         }
-        void render(Graphics2D g) {
+        void render(Graphics2D g, SpriteBatch batch) {
             if (texture != null) {
-                g.drawImage(texture, x, y, playerSize, playerSize, null);
+                batch.draw(assetManager.getScaledImage(texture, playerSize, playerSize), x, y, playerSize, playerSize, LAYER_OBJECTS);
             } else {
                 g.setColor(Color.RED);
                 g.fillRect(x, y, playerSize, playerSize);
@@ -224,12 +348,12 @@ public class StarlightScene extends Scene {
             this.y = y;
             this.texture = texture;
         }
-        void render(Graphics2D g) {
+        void render(Graphics2D g, SpriteBatch batch) {
             if (texture != null) {
-                g.drawImage(texture, x, y, 16, 16, null);
+                batch.draw(assetManager.getScaledImage(texture, BULLET_SIZE, BULLET_SIZE), x, y, BULLET_SIZE, BULLET_SIZE, LAYER_OBJECTS);
             } else {
                 g.setColor(Color.YELLOW);
-                g.fillOval(x, y, 16, 16);
+                g.fillOval(x, y, BULLET_SIZE, BULLET_SIZE);
             }
         }
         void update(double deltaTime) {
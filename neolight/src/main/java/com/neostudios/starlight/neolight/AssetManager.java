@@ -4,6 +4,12 @@ import javax.imageio.ImageIO;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
@@ -18,16 +24,22 @@ import java.util.logging.Level;
  */
 public class AssetManager {
     private static final Logger LOGGER = Logger.getLogger(AssetManager.class.getName());
+    private static final int DEFAULT_ATLAS_PAGE_SIZE = 1024;
+    private static final int MAX_SCALED_IMAGES = 512;
     private static AssetManager instance;
     
     private final Map<String, BufferedImage> imageCache;
     private final Map<String, Clip> audioCache;
     private final Map<String, Object> genericCache;
+    private final ScaledImageCache scaledImageCache;
+    private volatile boolean optimizeImages;
     
     private AssetManager() {
         imageCache = new ConcurrentHashMap<>();
         audioCache = new ConcurrentHashMap<>();
         genericCache = new ConcurrentHashMap<>();
+        scaledImageCache = new ScaledImageCache(MAX_SCALED_IMAGES, this::createCompatibleImage);
+        optimizeImages = true;
     }
     
     /**
@@ -58,6 +70,12 @@ public class AssetManager {
                         throw new IOException("Resource not found: " + path);
                     }
                     BufferedImage image = ImageIO.read(is);
+                    if (image == null) {
+                        throw new IOException("Unsupported image format: " + path);
+                    }
+                    if (optimizeImages) {
+                        image = optimizeImage(image);
+                    }
                     imageCache.put(path, image);
                     return image;
                 }
@@ -97,6 +115,127 @@ public class AssetManager {
         });
     }
     
+    /**
+     * Packs images into a texture atlas with the default page size (1024x1024).
+     * @param images Images to pack, by name
+     * @return The atlas; its regions share the page rasters
+     */
+    public TextureAtlas packAtlas(Map<String, BufferedImage> images) {
+        return packAtlas(images, DEFAULT_ATLAS_PAGE_SIZE);
+    }
+    
+    /**
+     * Packs images into one or more atlas pages, so many small sprites share a few images.
+     * Images too large for a page are kept as they are.
+     * @param images Images to pack, by name
+     * @param pageSize Width and height of each atlas page
+     * @return The atlas; its regions share the page rasters
+     */
+    public TextureAtlas packAtlas(Map<String, BufferedImage> images, int pageSize) {
+        TextureAtlas atlas = TextureAtlas.pack(images, pageSize, this::createCompatibleImage);
+        LOGGER.info("Packed " + images.size() + " images into " + atlas.getPages().size() + " atlas page(s)");
+        return atlas;
+    }
+    
+    /**
+     * Gets a copy of an image scaled to the given size with nearest-neighbour sampling,
+     * created on first use and cached. Draw the result at its own size so Java2D does not
+     * rescale it every frame.
+     * @param image The source image
+     * @param width Target width
+     * @param height Target height
+     * @return The scaled image, or the source image if it already has that size
+     */
+    public BufferedImage getScaledImage(BufferedImage image, int width, int height) {
+        return getScaledImage(image, width, height, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+    }
+    
+    /**
+     * Gets a copy of an image scaled to the given size, created on first use and cached.
+     * Cached copies are dropped when memory runs low and recreated on demand.
+     * @param image The source image
+     * @param width Target width
+     * @param height Target height
+     * @param interpolation A RenderingHints.VALUE_INTERPOLATION_* value
+     * @return The scaled image, or the source image if it already has that size
+     */
+    public BufferedImage getScaledImage(BufferedImage image, int width, int height, Object interpolation) {
+        if (image.getWidth() == width && image.getHeight() == height) {
+            return image;
+        }
+        return scaledImageCache.get(image, width, height, interpolation);
+    }
+    
+    /**
+     * Creates an empty translucent image in the pixel format the screen draws fastest.
+     * @param width Image width
+     * @param height Image height
+     * @return A compatible image, or a premultiplied INT_ARGB image when there is no screen
+     */
+    public BufferedImage createCompatibleImage(int width, int height) {
+        return createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+    
+    /**
+     * Creates an empty image in the pixel format the screen draws fastest.
+     * @param width Image width
+     * @param height Image height
+     * @param transparency Transparency.OPAQUE, BITMASK or TRANSLUCENT
+     * @return A compatible image, or a premultiplied INT_ARGB image when there is no screen
+     */
+    public BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc == null) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        return gc.createCompatibleImage(width, height, transparency);
+    }
+    
+    /**
+     * Converts an image to the screen's compatible pixel format, or to premultiplied INT_ARGB
+     * when there is no screen. Decoders often return 3-byte BGR, indexed or custom rasters,
+     * which Java2D has to convert pixel by pixel on every draw; converted images blit directly.
+     * Loaded images are optimized automatically unless disabled with setOptimizeImages(false).
+     * @param image The image to convert
+     * @return An image in a fast format: the same image if it already is one
+     */
+    public BufferedImage optimizeImage(BufferedImage image) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc == null) {
+            if (image.getType() == BufferedImage.TYPE_INT_ARGB_PRE) {
+                return image;
+            }
+        } else if (image.getColorModel().equals(gc.getColorModel(image.getTransparency()))) {
+            return image;
+        }
+
+        BufferedImage optimized = createCompatibleImage(image.getWidth(), image.getHeight(), image.getTransparency());
+        Graphics2D g = optimized.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return optimized;
+    }
+    
+    /**
+     * Enables or disables converting loaded images to a fast pixel format. Enabled by default.
+     */
+    public void setOptimizeImages(boolean optimizeImages) {
+        this.optimizeImages = optimizeImages;
+    }
+    
+    private static GraphicsConfiguration getGraphicsConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return null;
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment()
+            .getDefaultScreenDevice()
+            .getDefaultConfiguration();
+    }
+    
     /**
      * Caches a generic object.
      * @param key The cache key
@@ -121,6 +260,7 @@ public class AssetManager {
      */
     public void clearImageCache() {
         imageCache.clear();
+        scaledImageCache.clear();
     }
     
     /**
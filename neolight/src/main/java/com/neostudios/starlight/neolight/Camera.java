@@ -0,0 +1,135 @@
+package com.neostudios.starlight.neolight;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+
+/**
+ * A view onto a 2D world: a position, a zoom factor and a viewport size on screen.
+ * Scenes draw world objects through the camera and use isVisible to skip anything
+ * that falls outside the view.
+ */
+public class Camera {
+    private double x, y;
+    private double zoom;
+    private int viewportWidth, viewportHeight;
+    // World size the view is kept inside; 0 means unbounded
+    private double worldWidth, worldHeight;
+
+    public Camera() {
+        this(0, 0);
+    }
+
+    /**
+     * @param viewportWidth Width of the viewport in screen pixels
+     * @param viewportHeight Height of the viewport in screen pixels
+     */
+    public Camera(int viewportWidth, int viewportHeight) {
+        this.zoom = 1.0;
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+    }
+
+    /**
+     * Moves the top-left corner of the view to a world position.
+     */
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+        clamp();
+    }
+
+    /**
+     * Moves the view by an offset in world units.
+     */
+    public void move(double dx, double dy) {
+        setPosition(x + dx, y + dy);
+    }
+
+    /**
+     * Moves the view so a world position is in its centre.
+     */
+    public void centerOn(double worldX, double worldY) {
+        setPosition(worldX - getViewWidth() / 2, worldY - getViewHeight() / 2);
+    }
+
+    /**
+     * Sets the zoom factor; 2 draws the world at twice its size.
+     */
+    public void setZoom(double zoom) {
+        if (zoom <= 0) {
+            throw new IllegalArgumentException("Zoom must be positive: " + zoom);
+        }
+        this.zoom = zoom;
+        clamp();
+    }
+
+    /**
+     * Sets the size of the viewport on screen.
+     */
+    public void setViewport(int width, int height) {
+        this.viewportWidth = width;
+        this.viewportHeight = height;
+        clamp();
+    }
+
+    /**
+     * Keeps the view inside a world of the given size. Pass 0 to remove the limit.
+     * When the world is smaller than the view it is centred.
+     */
+    public void setWorldBounds(double width, double height) {
+        this.worldWidth = width;
+        this.worldHeight = height;
+        clamp();
+    }
+
+    /**
+     * Checks whether a world rectangle overlaps the view.
+     * @param x Left edge in world units
+     * @param y Top edge in world units
+     * @param width Rectangle width
+     * @param height Rectangle height
+     * @return true if any part of the rectangle is visible
+     */
+    public boolean isVisible(double x, double y, double width, double height) {
+        return x + width > this.x && y + height > this.y
+            && x < this.x + getViewWidth() && y < this.y + getViewHeight();
+    }
+
+    /**
+     * Applies the camera to a graphics context, so it draws in world coordinates.
+     * @param g The graphics context
+     * @return The previous transform, to restore with g.setTransform
+     */
+    public AffineTransform apply(Graphics2D g) {
+        AffineTransform original = g.getTransform();
+        g.scale(zoom, zoom);
+        g.translate(-x, -y);
+        return original;
+    }
+
+    public double worldToScreenX(double worldX) { return (worldX - x) * zoom; }
+    public double worldToScreenY(double worldY) { return (worldY - y) * zoom; }
+    public double screenToWorldX(double screenX) { return screenX / zoom + x; }
+    public double screenToWorldY(double screenY) { return screenY / zoom + y; }
+
+    public double getX() { return x; }
+    public double getY() { return y; }
+    public double getZoom() { return zoom; }
+    public int getViewportWidth() { return viewportWidth; }
+    public int getViewportHeight() { return viewportHeight; }
+    /** Width of the view in world units. */
+    public double getViewWidth() { return viewportWidth / zoom; }
+    /** Height of the view in world units. */
+    public double getViewHeight() { return viewportHeight / zoom; }
+
+    private void clamp() {
+        if (worldWidth > 0) {
+            double maxX = worldWidth - getViewWidth();
+            x = maxX < 0 ? maxX / 2 : Math.max(0, Math.min(x, maxX));
+        }
+        if (worldHeight > 0) {
+            double maxY = worldHeight - getViewHeight();
+            y = maxY < 0 ? maxY / 2 : Math.max(0, Math.min(y, maxY));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.neostudios.starlight.neolight;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the screen regions that changed since the last frame.
+ * Overlapping and touching rectangles are merged as they are added, and the set is kept
+ * small (a few rectangles at most) so redrawing it never costs much more than a full frame.
+ */
+public class DirtyRegions {
+    private static final int MAX_REGIONS = 4;
+    // Above this fraction of the bounds, just redraw everything
+    private static final double FULL_REDRAW_RATIO = 0.75;
+
+    private final List<Rectangle> regions;
+    private final Rectangle bounds;
+    private boolean full;
+
+    /**
+     * Creates an unbounded region set, e.g. for a scene to record its own invalidations.
+     */
+    public DirtyRegions() {
+        this.regions = new ArrayList<>();
+        this.bounds = null;
+        this.full = false;
+    }
+
+    /**
+     * Creates a region set clipped to a screen area.
+     * @param width The screen width
+     * @param height The screen height
+     */
+    public DirtyRegions(int width, int height) {
+        this.regions = new ArrayList<>();
+        this.bounds = new Rectangle(0, 0, width, height);
+        this.full = false;
+    }
+
+    /**
+     * Marks a rectangle as changed.
+     */
+    public void add(int x, int y, int width, int height) {
+        if (full || width <= 0 || height <= 0) {
+            return;
+        }
+
+        Rectangle r = new Rectangle(x, y, width, height);
+        if (bounds != null) {
+            r = r.intersection(bounds);
+            if (r.isEmpty()) {
+                return;
+            }
+        }
+
+        // Absorb every region the new one overlaps or touches
+        for (int i = 0; i < regions.size(); ) {
+            Rectangle other = regions.get(i);
+            if (touches(r, other)) {
+                r = r.union(other);
+                regions.remove(i);
+                i = 0;
+            } else {
+                i++;
+            }
+        }
+        regions.add(r);
+
+        if (regions.size() > MAX_REGIONS) {
+            Rectangle union = regions.get(0);
+            for (Rectangle other : regions) {
+                union = union.union(other);
+            }
+            regions.clear();
+            regions.add(union);
+        }
+
+        if (bounds != null) {
+            long area = 0;
+            for (Rectangle other : regions) {
+                area += (long) other.width * other.height;
+            }
+            if (area >= FULL_REDRAW_RATIO * bounds.width * bounds.height) {
+                addAll();
+            }
+        }
+    }
+
+    /**
+     * Marks a rectangle as changed.
+     */
+    public void add(Rectangle r) {
+        add(r.x, r.y, r.width, r.height);
+    }
+
+    /**
+     * Marks everything as changed.
+     */
+    public void addAll() {
+        full = true;
+        regions.clear();
+    }
+
+    /**
+     * Adds all regions of another set to this one.
+     */
+    public void addAll(DirtyRegions other) {
+        if (other.full) {
+            addAll();
+            return;
+        }
+        for (Rectangle r : other.regions) {
+            add(r);
+        }
+    }
+
+    public boolean isEmpty() {
+        return !full && regions.isEmpty();
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Gets the changed rectangles. When everything changed, this is the whole bounds
+     * (or an empty list for an unbounded set).
+     */
+    public List<Rectangle> getRegions() {
+        if (full) {
+            return bounds != null ? Collections.singletonList(bounds) : Collections.emptyList();
+        }
+        return Collections.unmodifiableList(regions);
+    }
+
+    public void clear() {
+        full = false;
+        regions.clear();
+    }
+
+    private static boolean touches(Rectangle a, Rectangle b) {
+        return a.x <= b.x + b.width && b.x <= a.x + a.width
+            && a.y <= b.y + b.height && b.y <= a.y + a.height;
+    }
+}
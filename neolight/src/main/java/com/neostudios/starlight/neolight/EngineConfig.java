@@ -0,0 +1,73 @@
+package com.neostudios.starlight.neolight;
+
+/**
+ * Configuration for the NeoLight engine loop and renderer.
+ * Create one, adjust the fields you need and pass it to the NeoLightEngine constructor.
+ */
+public class EngineConfig {
+    /**
+     * How finished frames are put on screen.
+     */
+    public enum PresentMode {
+        /** Repaint a Swing panel on the EDT. Simple and compatible, but Swing may delay or coalesce repaints. */
+        PANEL,
+        /** Page-flip a Canvas BufferStrategy directly from the engine, without the EDT. */
+        ACTIVE
+    }
+
+    /** Simulate at a fixed rate instead of once per rendered frame with a variable delta. */
+    public boolean fixedTimestep;
+    /** Simulation ticks per second when fixedTimestep is enabled; must be positive. */
+    public int tickRate;
+    /** Maximum simulation ticks run in a single frame before the remaining backlog is dropped; must be positive. */
+    public int maxCatchUpSteps;
+    /** Run without a window (servers, CI, benchmarks). Forced on when AWT itself is headless. */
+    public boolean headless;
+    /** In headless mode, still render each frame into an offscreen buffer. */
+    public boolean headlessRender;
+    /** Draw frame N+1 on the game thread while frame N is presented, handing frames over through a triple buffer. */
+    public boolean pipelined;
+    /** How frames are presented on screen. */
+    public PresentMode presentMode;
+    /** Number of BufferStrategy pages (2 or 3) for active rendering. */
+    public int bufferPages;
+    /** Draw frames into an accelerated VolatileImage when available, falling back to the software buffer. */
+    public boolean acceleratedBuffer;
+    /** Target frames per second for the main loop (e.g. 30, 60, 120, 144), or 0 for uncapped. */
+    public int targetFps;
+    /** Internal render resolution as a fraction of the window size, e.g. 0.5 or 0.75. */
+    public double renderScale;
+    /** Fixed internal render width (e.g. 320); overrides renderScale when both virtual sizes are set. */
+    public int virtualWidth;
+    /** Fixed internal render height (e.g. 180); overrides renderScale when both virtual sizes are set. */
+    public int virtualHeight;
+    /** Only upscale by whole multiples, leaving a black border, so pixel art stays crisp. */
+    public boolean integerScaling;
+    /** Upscale with bilinear filtering instead of nearest neighbour. */
+    public boolean smoothUpscale;
+    /** Redraw and present only the regions scenes invalidated (see Scene.invalidate); frames with none are skipped. */
+    public boolean dirtyRegions;
+    /** Rasterize commands queued on the scene's ParallelCompositor across all cores; needs the software buffer. */
+    public boolean parallelCompositing;
+
+    public EngineConfig() {
+        // Default values
+        this.fixedTimestep = false;
+        this.tickRate = 120;
+        this.maxCatchUpSteps = 5;
+        this.headless = false;
+        this.headlessRender = false;
+        this.pipelined = false;
+        this.presentMode = PresentMode.PANEL;
+        this.bufferPages = 2;
+        this.acceleratedBuffer = false;
+        this.targetFps = 60;
+        this.renderScale = 1.0;
+        this.virtualWidth = 0;
+        this.virtualHeight = 0;
+        this.integerScaling = false;
+        this.smoothUpscale = false;
+        this.dirtyRegions = false;
+        this.parallelCompositing = false;
+    }
+}
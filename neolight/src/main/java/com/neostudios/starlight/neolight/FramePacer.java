@@ -0,0 +1,106 @@
+package com.neostudios.starlight.neolight;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces the game loop to a target frame rate using absolute deadlines.
+ * Each frame waits until its deadline on the System.nanoTime clock: it sleeps for most of
+ * the remaining time and spin-yields through the last stretch, where sleeping is too coarse.
+ * Because deadlines advance by exactly one frame period, the time a frame spent working is
+ * subtracted from its wait automatically.
+ * <p>
+ * sync() runs on the game thread. setTargetFps() and reset() may be called from any thread;
+ * they only publish the change, which sync() applies when it next runs.
+ */
+public class FramePacer {
+    // Below this much remaining time, spin instead of sleeping (sleep overshoot is often ~1 ms)
+    private static final long SPIN_THRESHOLD_NANOS = 1_000_000L;
+    private static final long NO_RESET = Long.MIN_VALUE;
+
+    private volatile int targetFps;
+    private volatile long periodNanos;
+    // Time of the last reset() not yet applied by sync(), or NO_RESET
+    private final AtomicLong pendingReset = new AtomicLong(NO_RESET);
+    // Game thread only
+    private long nextDeadline;
+    private final AtomicLong missedDeadlines = new AtomicLong();
+
+    /**
+     * Creates a frame pacer.
+     * @param targetFps Target frames per second, or 0 for uncapped
+     */
+    public FramePacer(int targetFps) {
+        setTargetFps(targetFps);
+    }
+
+    /**
+     * Sets the target frame rate, e.g. 30, 60, 120 or 144.
+     * @param targetFps Target frames per second, or 0 for uncapped
+     */
+    public void setTargetFps(int targetFps) {
+        int fps = Math.max(0, targetFps);
+        this.targetFps = fps;
+        this.periodNanos = fps == 0 ? 0 : 1_000_000_000L / fps;
+        reset();
+    }
+
+    public int getTargetFps() {
+        return targetFps;
+    }
+
+    /**
+     * Restarts pacing from now, e.g. after the loop was paused.
+     */
+    public void reset() {
+        pendingReset.set(System.nanoTime());
+    }
+
+    /**
+     * Waits until the current frame's deadline and schedules the next one.
+     * Returns immediately when uncapped or when the deadline has already passed.
+     */
+    public void sync() {
+        long periodNanos = this.periodNanos;
+        if (periodNanos == 0) {
+            return;
+        }
+        long resetTime = pendingReset.getAndSet(NO_RESET);
+        if (resetTime != NO_RESET) {
+            nextDeadline = resetTime + periodNanos;
+        }
+
+        long now = System.nanoTime();
+        if (now > nextDeadline) {
+            missedDeadlines.incrementAndGet();
+            if (now - nextDeadline > periodNanos) {
+                // More than a whole frame late: start over instead of rushing to catch up
+                nextDeadline = now + periodNanos;
+                return;
+            }
+        } else {
+            long remaining;
+            while ((remaining = nextDeadline - System.nanoTime()) > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+            while (System.nanoTime() < nextDeadline) {
+                Thread.onSpinWait();
+            }
+        }
+        nextDeadline += periodNanos;
+    }
+
+    /**
+     * Gets how many frames finished after their deadline.
+     */
+    public long getMissedDeadlines() {
+        return missedDeadlines.get();
+    }
+
+    public void resetMissedDeadlines() {
+        missedDeadlines.set(0);
+    }
+}
@@ -0,0 +1,338 @@
+package com.neostudios.starlight.neolight;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.imageio.ImageIO;
+
+/**
+ * Records every Nth rendered frame to disk, as numbered PNG files or one uncompressed Y4M video.
+ * The game thread only copies a frame's pixels into one of a fixed ring of buffers; worker
+ * threads encode and write them. When every buffer is still waiting to be written the frame is
+ * dropped and counted instead of slowing the simulation down, so check getDroppedFrames()
+ * when a recording needs every frame.
+ * <p>
+ * Y4M (YUV4MPEG2, 4:2:0) needs no encoder and is read by ffmpeg and most video tools.
+ * Frames are converted in parallel but written in capture order.
+ */
+public class FrameRecorder {
+    /** How frames are written. */
+    public enum Format {
+        /** One PNG per frame, named frame-000000.png and so on, in the output directory. */
+        PNG_SEQUENCE,
+        /** A single YUV4MPEG2 video file. */
+        Y4M
+    }
+
+    private static final byte[] Y4M_FRAME = "FRAME\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final int width, height;
+    private final Path output;
+    private final Format format;
+    private final int frameInterval;
+    private final PixelBufferPool pool;
+    private final ThreadPoolExecutor workers;
+    private final OutputStream stream;
+    // Reusable YUV frame per worker thread
+    private final ThreadLocal<byte[]> yuvBuffers;
+
+    // Game thread only
+    private long frameCounter;
+    private long nextSequence;
+
+    // Y4M frames are written strictly in sequence order
+    private final Object writeLock = new Object();
+    private long nextToWrite;
+
+    private final AtomicLong capturedFrames = new AtomicLong();
+    private final AtomicLong writtenFrames = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile boolean stopped;
+    private volatile IOException failure;
+
+    /**
+     * Starts a recording.
+     * @param width Frame width in pixels
+     * @param height Frame height in pixels
+     * @param output Directory for PNG_SEQUENCE, file for Y4M; missing directories are created
+     * @param format How frames are written
+     * @param frameInterval Record one frame out of this many
+     * @param frameRate Nominal rate at which frames are rendered, used for the Y4M header
+     * @param workerCount Number of encoding threads
+     * @param bufferCount Frames that can wait to be written before further frames are dropped
+     * @throws IOException If the output can't be created
+     */
+    public FrameRecorder(int width, int height, Path output, Format format, int frameInterval,
+                         int frameRate, int workerCount, int bufferCount) throws IOException {
+        if (width <= 0 || height <= 0 || frameInterval <= 0 || frameRate <= 0
+            || workerCount <= 0 || bufferCount <= 0) {
+            throw new IllegalArgumentException("Recorder dimensions, frame rate and counts must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        this.output = output;
+        this.format = format;
+        this.frameInterval = frameInterval;
+        this.pool = new PixelBufferPool(width * height, bufferCount);
+
+        if (format == Format.Y4M) {
+            Path parent = output.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.stream = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16);
+            // Frame rate as a fraction: frameRate / frameInterval frames per second
+            String header = "YUV4MPEG2 W" + width + " H" + height + " F" + frameRate + ":" + frameInterval
+                + " Ip A1:1 C420jpeg\n";
+            stream.write(header.getBytes(StandardCharsets.US_ASCII));
+            int chromaSize = ((width + 1) / 2) * ((height + 1) / 2);
+            this.yuvBuffers = ThreadLocal.withInitial(() -> new byte[width * height + 2 * chromaSize]);
+        } else {
+            Files.createDirectories(output);
+            this.stream = null;
+            this.yuvBuffers = null;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // The ring of buffers bounds the work queued here
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "NeoLight-Recorder-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Counts a rendered frame and records it if it is due. Called on the game thread at frame end.
+     * @param frame Supplies the finished frame; only called for frames that are recorded
+     */
+    public void frameRendered(Supplier<BufferedImage> frame) {
+        if (stopped || frameCounter++ % frameInterval != 0) {
+            return;
+        }
+        int[] pixels = pool.acquire();
+        if (pixels == null) {
+            droppedFrames.incrementAndGet();
+            return;
+        }
+        PixelBufferPool.copyPixels(frame.get(), pixels);
+        long sequence = nextSequence++;
+        capturedFrames.incrementAndGet();
+        pending.incrementAndGet();
+        try {
+            workers.execute(() -> encode(pixels, sequence));
+        } catch (RejectedExecutionException e) {
+            pool.release(pixels);
+            droppedFrames.incrementAndGet();
+            frameDone();
+        }
+    }
+
+    /**
+     * Stops recording. Frames already captured are still written; the returned future
+     * completes once they are and the output is closed, or fails if writing failed.
+     */
+    public CompletableFuture<Void> stop() {
+        stopped = true;
+        if (pending.get() == 0) {
+            finish();
+        }
+        return completion;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Gets the number of frames handed to the workers.
+     */
+    public long getCapturedFrames() {
+        return capturedFrames.get();
+    }
+
+    /**
+     * Gets the number of frames written to disk so far.
+     */
+    public long getWrittenFrames() {
+        return writtenFrames.get();
+    }
+
+    /**
+     * Gets the number of due frames that were skipped because the workers fell behind.
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    public Path getOutput() {
+        return output;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public int getFrameInterval() {
+        return frameInterval;
+    }
+
+    private void encode(int[] pixels, long sequence) {
+        try {
+            if (format == Format.Y4M) {
+                // Always called, even after a failure, so this frame's turn to write is taken
+                writeY4m(pixels, sequence);
+            } else if (failure == null) {
+                writePng(pixels, sequence);
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        } finally {
+            pool.release(pixels);
+            frameDone();
+        }
+    }
+
+    private void fail(Exception e) {
+        if (failure == null) {
+            EngineLogger.error("Frame recording failed: " + e.getMessage());
+        }
+        failure = e instanceof IOException ? (IOException) e : new IOException(e);
+    }
+
+    private void writePng(int[] pixels, long sequence) throws IOException {
+        BufferedImage image = PixelBufferPool.wrapPixels(pixels, width, height);
+        Path file = output.resolve(String.format("frame-%06d.png", sequence));
+        if (!ImageIO.write(image, "png", file.toFile())) {
+            throw new IOException("No PNG writer available");
+        }
+        writtenFrames.incrementAndGet();
+    }
+
+    /**
+     * Converts a frame, then writes it once every earlier frame has had its turn.
+     * Each frame waits for its own turn and passes it on to the next even if it fails,
+     * so a failure never leaves later frames waiting.
+     */
+    private void writeY4m(int[] pixels, long sequence) {
+        byte[] yuv = yuvBuffers.get();
+        RuntimeException conversionFailure = null;
+        if (failure == null) {
+            try {
+                toYuv420(pixels, yuv);
+            } catch (RuntimeException e) {
+                conversionFailure = e;
+            }
+        }
+        boolean interrupted = false;
+        synchronized (writeLock) {
+            while (nextToWrite != sequence) {
+                try {
+                    writeLock.wait();
+                } catch (InterruptedException e) {
+                    // Keep waiting; giving up the turn would stall every later frame
+                    interrupted = true;
+                }
+            }
+            try {
+                if (conversionFailure != null) {
+                    throw conversionFailure;
+                }
+                if (failure == null) {
+                    stream.write(Y4M_FRAME);
+                    stream.write(yuv);
+                    writtenFrames.incrementAndGet();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Recorded before the next frame's turn, so it skips writing
+                fail(e);
+            } finally {
+                nextToWrite = sequence + 1;
+                writeLock.notifyAll();
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts 0xRRGGBB pixels to full-range BT.601 planar YUV with chroma averaged over 2x2 blocks.
+     * Runs on the worker threads; package-private for tests.
+     */
+    void toYuv420(int[] pixels, byte[] yuv) {
+        int chromaWidth = (width + 1) / 2;
+        int chromaHeight = (height + 1) / 2;
+        int uPlane = width * height;
+        int vPlane = uPlane + chromaWidth * chromaHeight;
+
+        for (int i = 0; i < width * height; i++) {
+            int p = pixels[i];
+            int r = (p >>> 16) & 0xFF, g = (p >>> 8) & 0xFF, b = p & 0xFF;
+            yuv[i] = (byte) ((77 * r + 150 * g + 29 * b + 128) >> 8);
+        }
+        for (int cy = 0; cy < chromaHeight; cy++) {
+            int row0 = 2 * cy * width;
+            int row1 = Math.min(2 * cy + 1, height - 1) * width;
+            for (int cx = 0; cx < chromaWidth; cx++) {
+                int x0 = 2 * cx;
+                int x1 = Math.min(x0 + 1, width - 1);
+                int a = pixels[row0 + x0], b = pixels[row0 + x1], c = pixels[row1 + x0], d = pixels[row1 + x1];
+                // Sum the four pixels two channels at a time; each sum fits in 10 bits
+                int rb = (a & 0xFF00FF) + (b & 0xFF00FF) + (c & 0xFF00FF) + (d & 0xFF00FF);
+                int gSum = ((a & 0x00FF00) + (b & 0x00FF00) + (c & 0x00FF00) + (d & 0x00FF00)) >>> 8;
+                int rSum = rb >>> 16, bSum = rb & 0x3FF;
+                int chroma = cy * chromaWidth + cx;
+                // Sums are 4x the average, so shift by 10 instead of 8
+                yuv[uPlane + chroma] = (byte) Math.min(255, Math.max(0,
+                    ((-43 * rSum - 85 * gSum + 128 * bSum + 512) >> 10) + 128));
+                yuv[vPlane + chroma] = (byte) Math.min(255, Math.max(0,
+                    ((128 * rSum - 107 * gSum - 21 * bSum + 512) >> 10) + 128));
+            }
+        }
+    }
+
+    private void frameDone() {
+        if (pending.decrementAndGet() == 0 && stopped) {
+            finish();
+        }
+    }
+
+    private void finish() {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        workers.shutdown();
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            completion.completeExceptionally(failure);
+        } else {
+            completion.complete(null);
+        }
+    }
+}
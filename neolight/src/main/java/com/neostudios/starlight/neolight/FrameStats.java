@@ -0,0 +1,81 @@
+package com.neostudios.starlight.neolight;
+
+/**
+ * Collects frame timing statistics (count, last, average, min and max frame time).
+ */
+public class FrameStats {
+    private long frameCount;
+    private long totalNanos;
+    private long minNanos;
+    private long maxNanos;
+    private long lastNanos;
+
+    public FrameStats() {
+        reset();
+    }
+
+    /**
+     * Records the duration of one frame.
+     * @param nanos Frame duration in nanoseconds
+     */
+    public void record(long nanos) {
+        frameCount++;
+        totalNanos += nanos;
+        lastNanos = nanos;
+        if (nanos < minNanos) {
+            minNanos = nanos;
+        }
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    /**
+     * Clears all recorded frames.
+     */
+    public void reset() {
+        frameCount = 0;
+        totalNanos = 0;
+        minNanos = Long.MAX_VALUE;
+        maxNanos = 0;
+        lastNanos = 0;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public double getLastFrameMillis() {
+        return lastNanos / 1_000_000.0;
+    }
+
+    public double getAverageFrameMillis() {
+        return frameCount == 0 ? 0 : totalNanos / (double) frameCount / 1_000_000.0;
+    }
+
+    public double getMinFrameMillis() {
+        return frameCount == 0 ? 0 : minNanos / 1_000_000.0;
+    }
+
+    public double getMaxFrameMillis() {
+        return maxNanos / 1_000_000.0;
+    }
+
+    /**
+     * Gets the average frame rate over all recorded frames.
+     * @return Frames per second, or 0 if nothing was recorded
+     */
+    public double getFramesPerSecond() {
+        return totalNanos == 0 ? 0 : frameCount * 1_000_000_000.0 / totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d frames, avg %.3f ms, min %.3f ms, max %.3f ms (%.1f FPS)",
+            frameCount, getAverageFrameMillis(), getMinFrameMillis(), getMaxFrameMillis(), getFramesPerSecond());
+    }
+}
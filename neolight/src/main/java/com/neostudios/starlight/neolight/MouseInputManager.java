@@ -16,18 +16,23 @@ public class MouseInputManager implements MouseListener, MouseMotionListener {
     private Point position = new Point(0, 0);
     private Point lastPosition = new Point(0, 0);
     private boolean isDragging = false;
+    // Maps window coordinates to render coordinates
+    private int offsetX = 0;
+    private int offsetY = 0;
+    private double scaleX = 1.0;
+    private double scaleY = 1.0;
 
     @Override
     public void mousePressed(MouseEvent e) {
         pressedButtons.add(e.getButton());
-        position.setLocation(e.getPoint());
-        lastPosition.setLocation(e.getPoint());
+        position.setLocation(toRenderX(e), toRenderY(e));
+        lastPosition.setLocation(position);
     }
 
     @Override
     public void mouseReleased(MouseEvent e) {
         pressedButtons.remove(e.getButton());
-        position.setLocation(e.getPoint());
+        position.setLocation(toRenderX(e), toRenderY(e));
         if (pressedButtons.isEmpty()) {
             isDragging = false;
         }
@@ -36,14 +41,14 @@ public class MouseInputManager implements MouseListener, MouseMotionListener {
     @Override
     public void mouseMoved(MouseEvent e) {
         lastPosition.setLocation(position);
-        position.setLocation(e.getPoint());
+        position.setLocation(toRenderX(e), toRenderY(e));
     }
 
     @Override
     public void mouseDragged(MouseEvent e) {
         isDragging = true;
         lastPosition.setLocation(position);
-        position.setLocation(e.getPoint());
+        position.setLocation(toRenderX(e), toRenderY(e));
     }
 
     @Override
@@ -61,6 +66,28 @@ public class MouseInputManager implements MouseListener, MouseMotionListener {
         // Not used - we use pressed/released instead
     }
 
+    /**
+     * Sets how window coordinates map to the engine's internal render resolution.
+     * @param offsetX Left edge of the rendered frame in the window
+     * @param offsetY Top edge of the rendered frame in the window
+     * @param scaleX Render pixels per window pixel, horizontally
+     * @param scaleY Render pixels per window pixel, vertically
+     */
+    public void setCoordinateMapping(int offsetX, int offsetY, double scaleX, double scaleY) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+    }
+
+    private int toRenderX(MouseEvent e) {
+        return (int) Math.floor((e.getX() - offsetX) * scaleX);
+    }
+
+    private int toRenderY(MouseEvent e) {
+        return (int) Math.floor((e.getY() - offsetY) * scaleY);
+    }
+
     /**
      * Checks if a specific mouse button is currently pressed.
      * @param button The mouse button to check (MouseEvent.BUTTON1, BUTTON2, or BUTTON3)
@@ -1,19 +1,59 @@
 package com.neostudios.starlight.neolight;
 
+import com.neostudios.starlight.neolight.lighting.LightMap;
+import com.neostudios.starlight.neolight.postprocess.PostProcessor;
+
 /**
  * Core engine class for NeoLight. Handles main loop and scene management.
  */
 public class NeoLightEngine {
+    // Frame rate written to recordings when the frame rate is uncapped
+    private static final int DEFAULT_RECORDING_FPS = 60;
+
     private SceneManager sceneManager;
-    private boolean running = false;
+    private volatile boolean running = false;
     private long lastFrameTime;
+    private double accumulator;
+    private boolean initialized = false;
+
+    private final EngineConfig config;
+    private final boolean headless;
+    private final FrameStats frameStats = new FrameStats();
+    private final FramePacer framePacer;
+    // Fixed-timestep settings, checked once so a changed config can't stall the simulation
+    private final double tickSeconds;
+    private final int maxCatchUpSteps;
 
     private final int width;
     private final int height;
-    private final java.awt.image.BufferedImage renderBuffer;
-    private final java.awt.Graphics2D renderGraphics;
+    // Internal render resolution, upscaled to the window on present
+    private final int renderWidth;
+    private final int renderHeight;
+    // Where the upscaled frame lands in the window (letterboxed if the aspect ratios differ)
+    private final java.awt.Rectangle presentBounds;
+    // The surface the current frame is drawn into; in pipelined mode this is the triple buffer's back buffer
+    private java.awt.image.BufferedImage renderBuffer;
+    private java.awt.Graphics2D renderGraphics;
+    private final TripleBuffer<RenderSurface> tripleBuffer;
+    // Accelerated render target, used instead of renderBuffer while accelerated is true
+    private java.awt.image.VolatileImage volatileBuffer;
+    private volatile boolean accelerated;
+    // Rasterizes scenes' queued draw commands across cores, null unless enabled
+    private final ParallelCompositor compositor;
+    // Full-screen effects run over each finished frame; null without a render buffer
+    private final PostProcessor postProcessor;
+    // Created with the first screenshot request
+    private volatile ScreenshotWriter screenshots;
+    private volatile FrameRecorder recorder;
+    // Regions redrawn this frame when dirty-region rendering is enabled, null otherwise
+    private final DirtyRegions dirtyRegions;
     private final javax.swing.JFrame frame;
     private final javax.swing.JPanel renderPanel;
+    private final java.awt.Canvas renderCanvas;
+    private java.awt.image.BufferStrategy bufferStrategy;
+    // Set when the window may have lost the canvas contents, so the last frame is shown again
+    private volatile boolean canvasDamaged;
+    private volatile Thread presenterThread;
     private final InputManager inputManager;
     private final MouseInputManager mouseInputManager;
     private volatile boolean isFocused = true;
@@ -28,22 +68,89 @@ public class NeoLightEngine {
      * @param icon The window icon (can be null)
      */
     public NeoLightEngine(NeoLightGame game, String title, int width, int height, java.awt.Image icon) {
+        this(game, title, width, height, icon, new EngineConfig());
+    }
+
+    /**
+     * Creates a new NeoLightEngine instance with a game instance and engine configuration.
+     * @param game The game instance to run
+     * @param title The window title
+     * @param width The window width
+     * @param height The window height
+     * @param icon The window icon (can be null)
+     * @param config The engine configuration
+     * @throws IllegalArgumentException If fixedTimestep is enabled with a tickRate or maxCatchUpSteps below 1
+     */
+    public NeoLightEngine(NeoLightGame game, String title, int width, int height, java.awt.Image icon, EngineConfig config) {
         this.game = game;
+        this.config = config;
+        this.headless = config.headless || java.awt.GraphicsEnvironment.isHeadless();
+        if (this.headless && !config.headless) {
+            EngineLogger.warn("No display available, running headless");
+        }
+        if (config.fixedTimestep && (config.tickRate <= 0 || config.maxCatchUpSteps <= 0)) {
+            throw new IllegalArgumentException("tickRate and maxCatchUpSteps must be positive, got "
+                + config.tickRate + " and " + config.maxCatchUpSteps);
+        }
+        this.tickSeconds = 1.0 / config.tickRate;
+        this.maxCatchUpSteps = config.maxCatchUpSteps;
+        this.framePacer = new FramePacer(config.targetFps);
         this.width = width;
         this.height = height;
-        this.sceneManager = new SceneManager();
+        if (config.virtualWidth > 0 && config.virtualHeight > 0) {
+            this.renderWidth = config.virtualWidth;
+            this.renderHeight = config.virtualHeight;
+        } else {
+            this.renderWidth = Math.max(1, (int) Math.round(width * config.renderScale));
+            this.renderHeight = Math.max(1, (int) Math.round(height * config.renderScale));
+        }
+        this.presentBounds = computePresentBounds();
+        if (config.dirtyRegions && config.pipelined) {
+            // Triple-buffered frames are two frames stale, so partial redraws would show old content
+            EngineLogger.warn("Dirty-region rendering is not supported in pipelined mode, redrawing full frames");
+            this.dirtyRegions = null;
+        } else if (config.dirtyRegions) {
+            this.dirtyRegions = new DirtyRegions(renderWidth, renderHeight);
+        } else {
+            this.dirtyRegions = null;
+        }
+        this.sceneManager = new SceneManager(renderWidth, renderHeight);
         this.lastFrameTime = System.nanoTime();
         this.inputManager = new InputManager();
         this.mouseInputManager = new MouseInputManager();
+        // Report mouse positions in render coordinates
+        this.mouseInputManager.setCoordinateMapping(
+            presentBounds.x, presentBounds.y,
+            (double) renderWidth / presentBounds.width,
+            (double) renderHeight / presentBounds.height
+        );
         
         // Initialize the render buffer with proper dimensions
-        this.renderBuffer = new java.awt.image.BufferedImage(width, height, java.awt.image.BufferedImage.TYPE_INT_ARGB);
-        this.renderGraphics = this.renderBuffer.createGraphics();
-        // Enable anti-aliasing for smoother rendering
-        this.renderGraphics.setRenderingHint(
-            java.awt.RenderingHints.KEY_ANTIALIASING,
-            java.awt.RenderingHints.VALUE_ANTIALIAS_ON
-        );
+        if (headless && !config.headlessRender) {
+            // Simulation only, nothing to draw into
+            this.tripleBuffer = null;
+        } else if (config.pipelined) {
+            // The game thread draws frame N+1 while the presenter shows frame N
+            this.tripleBuffer = new TripleBuffer<>(this::createSurface);
+            setRenderSurface(tripleBuffer.getBack());
+        } else {
+            this.tripleBuffer = null;
+            setRenderSurface(createSurface());
+        }
+        if (config.parallelCompositing && renderBuffer != null) {
+            this.compositor = new ParallelCompositor();
+            this.sceneManager.setCompositor(compositor);
+        } else {
+            this.compositor = null;
+        }
+        this.postProcessor = renderBuffer != null ? new PostProcessor() : null;
+
+        if (headless) {
+            this.frame = null;
+            this.renderPanel = null;
+            this.renderCanvas = null;
+            return;
+        }
 
         // Create and setup the frame
         this.frame = new javax.swing.JFrame(title);
@@ -53,22 +160,47 @@ public class NeoLightEngine {
         this.frame.setDefaultCloseOperation(javax.swing.JFrame.EXIT_ON_CLOSE);
         this.frame.setResizable(false);
 
-        // Create the render panel
-        this.renderPanel = new javax.swing.JPanel() {
-            @Override
-            protected void paintComponent(java.awt.Graphics g) {
-                super.paintComponent(g);
-                synchronized (renderBuffer) {
-                    g.drawImage(renderBuffer, 0, 0, null);
+        java.awt.Component view;
+        if (config.presentMode == EngineConfig.PresentMode.ACTIVE) {
+            // Active rendering: frames are page-flipped from our own thread, Swing never repaints
+            this.renderPanel = null;
+            this.renderCanvas = new java.awt.Canvas();
+            this.renderCanvas.setIgnoreRepaint(true);
+            this.renderCanvas.setPreferredSize(new java.awt.Dimension(width, height));
+            // The canvas takes keyboard focus from the frame
+            this.renderCanvas.addKeyListener(inputManager);
+            // Repaints from the OS are ignored, so catch the events that can leave the canvas blank
+            this.renderCanvas.addComponentListener(new java.awt.event.ComponentAdapter() {
+                @Override
+                public void componentResized(java.awt.event.ComponentEvent e) {
+                    canvasDamaged = true;
                 }
-            }
-        };
-        this.renderPanel.setPreferredSize(new java.awt.Dimension(width, height));
+                @Override
+                public void componentShown(java.awt.event.ComponentEvent e) {
+                    canvasDamaged = true;
+                }
+            });
+            this.frame.addWindowListener(new java.awt.event.WindowAdapter() {
+                @Override
+                public void windowDeiconified(java.awt.event.WindowEvent e) {
+                    canvasDamaged = true;
+                }
+                @Override
+                public void windowActivated(java.awt.event.WindowEvent e) {
+                    canvasDamaged = true;
+                }
+            });
+            view = this.renderCanvas;
+        } else {
+            this.renderCanvas = null;
+            this.renderPanel = createRenderPanel();
+            view = this.renderPanel;
+        }
         
         // Add input listeners
         this.frame.addKeyListener(inputManager);
-        this.renderPanel.addMouseListener(mouseInputManager);
-        this.renderPanel.addMouseMotionListener(mouseInputManager);
+        view.addMouseListener(mouseInputManager);
+        view.addMouseMotionListener(mouseInputManager);
         
         // Add window focus listener
         this.frame.addWindowFocusListener(new java.awt.event.WindowAdapter() {
@@ -82,25 +214,66 @@ public class NeoLightEngine {
             }
         });
 
-        this.frame.add(this.renderPanel);
+        this.frame.add(view);
         this.frame.pack();
         this.frame.setLocationRelativeTo(null); // Center on screen
+
+        if (config.acceleratedBuffer) {
+            if (tripleBuffer != null) {
+                EngineLogger.warn("Accelerated render target is not supported in pipelined mode, using software buffer");
+            } else if (compositor != null) {
+                EngineLogger.warn("Accelerated render target is not supported with parallel compositing, using software buffer");
+            } else {
+                this.accelerated = validateVolatileBuffer();
+            }
+        }
+    }
+
+    private javax.swing.JPanel createRenderPanel() {
+        javax.swing.JPanel panel = new javax.swing.JPanel() {
+            @Override
+            protected void paintComponent(java.awt.Graphics g) {
+                super.paintComponent(g);
+                if (tripleBuffer != null) {
+                    // Never blocks: shows the newest finished frame, or the previous one again
+                    tripleBuffer.acquire();
+                    drawPresented(g, tripleBuffer.getFront().image);
+                    return;
+                }
+                synchronized (renderBuffer) {
+                    drawPresented(g, accelerated ? volatileBuffer : renderBuffer);
+                }
+            }
+        };
+        panel.setPreferredSize(new java.awt.Dimension(width, height));
+        panel.setBackground(java.awt.Color.BLACK);
+        return panel;
     }
 
     public void start() {
-        // Initialize the game
-        if (game != null) {
-            game.init();
-        }
+        initGame();
 
         // Show the frame before starting the game loop
-        javax.swing.SwingUtilities.invokeLater(() -> frame.setVisible(true));
+        if (!headless) {
+            javax.swing.SwingUtilities.invokeLater(() -> frame.setVisible(true));
+        }
         
         running = true;
+        lastFrameTime = System.nanoTime();
+        accumulator = 0;
+        framePacer.reset();
+        if (renderCanvas != null && tripleBuffer != null) {
+            // Pipelined active rendering: page-flip on a dedicated thread
+            presenterThread = new Thread(this::presentLoop, "NeoLight-Presenter");
+            presenterThread.setDaemon(true);
+            presenterThread.start();
+        }
         while (running) {
             if (!isFocused) {
                 try {
+                    presentAgainIfDamaged(); // The window may be uncovered while in the background
                     Thread.sleep(100); // Sleep longer when window is not focused
+                    framePacer.reset();
                     continue;
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
@@ -108,39 +281,458 @@ public class NeoLightEngine {
                 }
             }
 
-            double deltaTime = computeDeltaTime();
-            sceneManager.update(deltaTime);
+            long frameStart = System.nanoTime();
+            boolean changed = runFrame(computeDeltaTime());
+            frameStats.record(System.nanoTime() - frameStart);
             
-            // Clear the buffer
-            synchronized (renderBuffer) {
-                renderGraphics.setColor(java.awt.Color.BLACK);
-                renderGraphics.fillRect(0, 0, width, height);
-                
-                // Render the current scene
-                sceneManager.render(renderGraphics);
-                
-                // Also render the game if it's not using the scene system
-                if (game != null) {
-                    game.render(renderGraphics);
+            // Present the frame: flip the canvas pages, or have Swing repaint the panel
+            if (headless) {
+                // Nothing to present
+            } else if (!changed) {
+                // Frame skipped with dirty-region rendering; only show the last one again if it was lost
+                presentAgainIfDamaged();
+            } else if (renderCanvas != null) {
+                if (tripleBuffer != null) {
+                    java.util.concurrent.locks.LockSupport.unpark(presenterThread);
+                } else {
+                    presentActive(accelerated ? volatileBuffer : renderBuffer);
                 }
+            } else if (tripleBuffer != null) {
+                renderPanel.repaint(); // Thread-safe, coalesced by Swing
+            } else if (dirtyRegions != null && !dirtyRegions.isFull()) {
+                repaintDirtyRegions();
+            } else {
+                javax.swing.SwingUtilities.invokeLater(() -> renderPanel.repaint());
             }
             
-            // Trigger a repaint of the panel on the EDT
-            javax.swing.SwingUtilities.invokeLater(() -> renderPanel.repaint());
-            
-            try {
-                Thread.sleep(16); // ~60 FPS
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+            // Wait for the next frame deadline
+            framePacer.sync();
+            if (Thread.currentThread().isInterrupted()) {
                 break;
             }
         }
     }
 
+    /**
+     * Runs frames back to back without sleeping or presenting, each with the given delta time.
+     * Intended for headless simulation, tests and benchmarks; the game is initialized on first use.
+     * @param frames Number of frames to run
+     * @param deltaTime Simulated time per frame in seconds
+     * @return Timing statistics for the frames that were run
+     */
+    public FrameStats stepFrames(int frames, double deltaTime) {
+        initGame();
+
+        FrameStats stats = new FrameStats();
+        for (int i = 0; i < frames; i++) {
+            long frameStart = System.nanoTime();
+            runFrame(deltaTime);
+            long elapsed = System.nanoTime() - frameStart;
+            stats.record(elapsed);
+            frameStats.record(elapsed);
+        }
+        return stats;
+    }
+
+    private void initGame() {
+        if (initialized) {
+            return;
+        }
+        initialized = true;
+        if (game != null) {
+            game.init();
+        }
+    }
+
+    /**
+     * Updates the simulation by one frame and renders it, if there is a render buffer.
+     * @param deltaTime Time elapsed since last frame in seconds
+     * @return true if a new frame was drawn and needs presenting
+     */
+    private boolean runFrame(double deltaTime) {
+        double alpha = 1.0;
+        if (config.fixedTimestep) {
+            alpha = stepFixed(deltaTime);
+        } else {
+            sceneManager.update(deltaTime);
+        }
+
+        if (renderBuffer != null) {
+            boolean drawn = renderFrame(alpha);
+            captureFrame();
+            return drawn;
+        }
+        return false;
+    }
+
+    /**
+     * Hands the finished frame to the recorder and pending screenshot requests.
+     */
+    private void captureFrame() {
+        FrameRecorder recorder = this.recorder;
+        if (recorder != null) {
+            recorder.frameRendered(this::getFinishedFrame);
+        }
+        ScreenshotWriter screenshots = this.screenshots;
+        if (screenshots != null && screenshots.hasRequests()) {
+            screenshots.capture(getFinishedFrame());
+        }
+    }
+
+    private java.awt.image.BufferedImage getFinishedFrame() {
+        // Reading back video memory is slow, but only happens for frames that are captured
+        return accelerated ? volatileBuffer.getSnapshot() : renderBuffer;
+    }
+
+    /**
+     * Advances the simulation in fixed ticks covering the elapsed frame time.
+     * @param frameTime Time elapsed since last frame in seconds
+     * @return The interpolation alpha between the last two ticks, in [0, 1)
+     */
+    private double stepFixed(double frameTime) {
+        double step = tickSeconds;
+        accumulator += frameTime;
+
+        int steps = 0;
+        while (accumulator >= step && steps < maxCatchUpSteps) {
+            sceneManager.update(step);
+            accumulator -= step;
+            steps++;
+        }
+
+        // Too far behind (slow frame, breakpoint, window drag): drop the backlog
+        // instead of spiralling into ever longer catch-up frames.
+        if (accumulator >= step) {
+            accumulator %= step;
+        }
+        return accumulator / step;
+    }
+
+    /**
+     * Renders the current scene and game into the render buffer.
+     * @param alpha Interpolation alpha between the previous and current simulation state
+     * @return false if dirty-region rendering found nothing to redraw
+     */
+    private boolean renderFrame(double alpha) {
+        if (tripleBuffer != null) {
+            setRenderSurface(tripleBuffer.getBack());
+            drawFrame(renderGraphics, alpha);
+            tripleBuffer.publish();
+            return true;
+        }
+        synchronized (renderBuffer) {
+            boolean fellBack = false;
+            if (accelerated && sceneManager.getLightMap() != null) {
+                // Java2D has no multiply composite, so lighting works on the software buffer's pixels
+                useSoftwareBuffer("Light maps are not supported with an accelerated render target, using software buffer");
+                fellBack = true;
+            } else if (accelerated && postProcessor.hasEffects()) {
+                // Effects run over the software buffer's pixels too
+                useSoftwareBuffer("Post-processing effects are not supported with an accelerated render target, using software buffer");
+                fellBack = true;
+            }
+            if (dirtyRegions != null) {
+                dirtyRegions.clear();
+                sceneManager.collectDirtyRegions(dirtyRegions);
+                if (fellBack || accelerated && volatileBuffer.contentsLost()) {
+                    // Video memory was lost since the last frame, or the software buffer is out of date
+                    dirtyRegions.addAll();
+                }
+                if (dirtyRegions.isEmpty()) {
+                    return false;
+                }
+                if (postProcessor.hasEffects()) {
+                    // Effects cover the whole screen and must not be applied twice to kept pixels
+                    dirtyRegions.addAll();
+                }
+            }
+            if (accelerated) {
+                renderAccelerated(alpha);
+            } else {
+                drawFrame(renderGraphics, alpha);
+            }
+        }
+        return true;
+    }
+
+    private void drawFrame(java.awt.Graphics2D g, double alpha) {
+        if (dirtyRegions == null || dirtyRegions.isFull()) {
+            drawContent(g, alpha);
+        } else {
+            // Redraw only what changed; the rest of the buffer still holds the previous frame
+            for (java.awt.Rectangle region : dirtyRegions.getRegions()) {
+                g.setClip(region);
+                drawContent(g, alpha);
+            }
+            g.setClip(null);
+        }
+        if (postProcessor != null && postProcessor.hasEffects() && !accelerated) {
+            postProcessor.apply(renderBuffer);
+        }
+    }
+
+    private void drawContent(java.awt.Graphics2D g, double alpha) {
+        // Clear the buffer, unless an opaque scene layer is about to cover it anyway
+        if (!sceneManager.isOpaque()) {
+            g.setColor(java.awt.Color.BLACK);
+            g.fillRect(0, 0, renderWidth, renderHeight);
+        }
+        
+        // Render the current scene, light it, then draw its unlit overlay
+        sceneManager.renderScene(g, alpha);
+        if (compositor != null) {
+            // Each dirty region records its commands again, so drop them once drawn
+            compositor.composite(renderBuffer, g.getClipBounds());
+            compositor.clear();
+        }
+        LightMap lightMap = sceneManager.getLightMap();
+        if (lightMap != null && !accelerated) {
+            lightMap.apply(renderBuffer, g.getClipBounds());
+        }
+        sceneManager.renderOverlay(g);
+        
+        // Also render the game if it's not using the scene system
+        if (game != null) {
+            game.render(g);
+        }
+    }
+
+    /**
+     * Draws the frame into the VolatileImage, redrawing it if the contents are lost meanwhile
+     * (display mode change, another application grabbing video memory, ...).
+     */
+    private void renderAccelerated(double alpha) {
+        do {
+            if (!validateVolatileBuffer()) {
+                EngineLogger.warn("Accelerated render target unavailable, falling back to software buffer");
+                accelerated = false;
+                if (dirtyRegions != null) {
+                    dirtyRegions.addAll(); // The software buffer is out of date
+                }
+                drawFrame(renderGraphics, alpha);
+                return;
+            }
+            java.awt.Graphics2D g = volatileBuffer.createGraphics();
+            try {
+                g.setRenderingHint(
+                    java.awt.RenderingHints.KEY_ANTIALIASING,
+                    java.awt.RenderingHints.VALUE_ANTIALIAS_ON
+                );
+                drawFrame(g, alpha);
+            } finally {
+                g.dispose();
+            }
+            if (dirtyRegions != null && volatileBuffer.contentsLost()) {
+                dirtyRegions.addAll(); // Lost everything, not just the dirty parts
+            }
+        } while (volatileBuffer.contentsLost());
+    }
+
+    /**
+     * Stops rendering into the VolatileImage for good, drawing and presenting the software buffer instead.
+     * @param reason Warning to log
+     */
+    private void useSoftwareBuffer(String reason) {
+        EngineLogger.warn(reason);
+        accelerated = false;
+        volatileBuffer.flush();
+    }
+
+    /**
+     * Makes sure the VolatileImage exists, matches the window's graphics configuration
+     * and is actually accelerated.
+     * @return false if no accelerated image can be used
+     */
+    private boolean validateVolatileBuffer() {
+        java.awt.GraphicsConfiguration gc = frame.getGraphicsConfiguration();
+        if (gc == null) {
+            return false;
+        }
+        int status = volatileBuffer == null
+            ? java.awt.image.VolatileImage.IMAGE_INCOMPATIBLE
+            : volatileBuffer.validate(gc);
+        if (status == java.awt.image.VolatileImage.IMAGE_INCOMPATIBLE) {
+            if (volatileBuffer != null) {
+                volatileBuffer.flush();
+            }
+            volatileBuffer = gc.createCompatibleVolatileImage(renderWidth, renderHeight);
+        }
+        if (status != java.awt.image.VolatileImage.IMAGE_OK && dirtyRegions != null) {
+            dirtyRegions.addAll(); // New or restored image, contents are undefined
+        }
+        if (volatileBuffer == null || !volatileBuffer.getCapabilities().isAccelerated()) {
+            if (volatileBuffer != null) {
+                volatileBuffer.flush();
+                volatileBuffer = null;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Copies a finished frame to the canvas and flips pages.
+     * Called from the game thread, or from the presenter thread in pipelined mode.
+     * @param image The frame to show
+     */
+    private void presentActive(java.awt.Image image) {
+        if (bufferStrategy == null) {
+            if (!renderCanvas.isDisplayable()) {
+                return; // Frame not shown yet
+            }
+            renderCanvas.createBufferStrategy(Math.max(2, Math.min(3, config.bufferPages)));
+            bufferStrategy = renderCanvas.getBufferStrategy();
+        }
+
+        // Repeat until the pages survive the whole draw and flip
+        do {
+            do {
+                java.awt.Graphics g = bufferStrategy.getDrawGraphics();
+                if (presentBounds.width != width || presentBounds.height != height) {
+                    // Letterbox bars
+                    g.setColor(java.awt.Color.BLACK);
+                    g.fillRect(0, 0, width, height);
+                }
+                drawPresented(g, image);
+                g.dispose();
+            } while (bufferStrategy.contentsRestored());
+            bufferStrategy.show();
+        } while (bufferStrategy.contentsLost());
+        java.awt.Toolkit.getDefaultToolkit().sync();
+    }
+
+    /**
+     * Shows the last frame on the canvas again if the canvas may no longer show it: the window
+     * was restored, activated or resized, or the buffer strategy lost its pages.
+     * Only used when the game thread presents to the canvas itself.
+     */
+    private void presentAgainIfDamaged() {
+        if (renderCanvas == null || tripleBuffer != null) {
+            return;
+        }
+        boolean damaged = canvasDamaged
+            || bufferStrategy != null && (bufferStrategy.contentsLost() || bufferStrategy.contentsRestored());
+        if (!damaged) {
+            return;
+        }
+        if (accelerated && volatileBuffer.contentsLost()) {
+            // The frame itself is gone; present it once the next frame has redrawn it
+            canvasDamaged = true;
+            return;
+        }
+        canvasDamaged = false;
+        presentActive(accelerated ? volatileBuffer : renderBuffer);
+    }
+
+    /**
+     * Asks Swing to repaint only the window areas covering this frame's dirty regions.
+     */
+    private void repaintDirtyRegions() {
+        double scaleX = (double) presentBounds.width / renderWidth;
+        double scaleY = (double) presentBounds.height / renderHeight;
+        for (java.awt.Rectangle r : dirtyRegions.getRegions()) {
+            int x0 = presentBounds.x + (int) Math.floor(r.x * scaleX);
+            int y0 = presentBounds.y + (int) Math.floor(r.y * scaleY);
+            int x1 = presentBounds.x + (int) Math.ceil((r.x + r.width) * scaleX);
+            int y1 = presentBounds.y + (int) Math.ceil((r.y + r.height) * scaleY);
+            renderPanel.repaint(x0, y0, x1 - x0, y1 - y0); // Thread-safe
+        }
+    }
+
+    /**
+     * Draws a finished frame into the window, upscaling it once if the render resolution is lower.
+     */
+    private void drawPresented(java.awt.Graphics g, java.awt.Image image) {
+        if (presentBounds.width == renderWidth && presentBounds.height == renderHeight) {
+            g.drawImage(image, presentBounds.x, presentBounds.y, null);
+            return;
+        }
+        if (g instanceof java.awt.Graphics2D) {
+            ((java.awt.Graphics2D) g).setRenderingHint(
+                java.awt.RenderingHints.KEY_INTERPOLATION,
+                config.smoothUpscale
+                    ? java.awt.RenderingHints.VALUE_INTERPOLATION_BILINEAR
+                    : java.awt.RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR
+            );
+        }
+        g.drawImage(image, presentBounds.x, presentBounds.y, presentBounds.width, presentBounds.height, null);
+    }
+
+    /**
+     * Computes the largest area of the window the frame can be scaled to without distortion,
+     * restricted to whole multiples when integer scaling is enabled.
+     */
+    private java.awt.Rectangle computePresentBounds() {
+        double scale = Math.min((double) width / renderWidth, (double) height / renderHeight);
+        if (config.integerScaling && scale >= 1) {
+            scale = Math.floor(scale);
+        }
+        int w = (int) Math.round(renderWidth * scale);
+        int h = (int) Math.round(renderHeight * scale);
+        return new java.awt.Rectangle((width - w) / 2, (height - h) / 2, w, h);
+    }
+
+    private void presentLoop() {
+        while (running) {
+            if (tripleBuffer.acquire()) {
+                presentActive(tripleBuffer.getFront().image);
+            } else {
+                // Woken by the game thread after each published frame
+                java.util.concurrent.locks.LockSupport.park(this);
+            }
+        }
+    }
+
+    private RenderSurface createSurface() {
+        java.awt.image.BufferedImage image = new java.awt.image.BufferedImage(renderWidth, renderHeight, java.awt.image.BufferedImage.TYPE_INT_ARGB);
+        java.awt.Graphics2D graphics = image.createGraphics();
+        // Enable anti-aliasing for smoother rendering
+        graphics.setRenderingHint(
+            java.awt.RenderingHints.KEY_ANTIALIASING,
+            java.awt.RenderingHints.VALUE_ANTIALIAS_ON
+        );
+        return new RenderSurface(image, graphics);
+    }
+
+    private void setRenderSurface(RenderSurface surface) {
+        renderBuffer = surface.image;
+        renderGraphics = surface.graphics;
+    }
+
     public void stop() {
         running = false;
-        renderGraphics.dispose(); // Clean up graphics resources
-        javax.swing.SwingUtilities.invokeLater(() -> frame.dispose()); // Clean up the frame on EDT
+        Thread presenter = presenterThread;
+        if (presenter != null && presenter != Thread.currentThread()) {
+            java.util.concurrent.locks.LockSupport.unpark(presenter);
+            // Let a frame being flipped finish before its graphics and surfaces go away
+            try {
+                presenter.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (tripleBuffer != null) {
+            for (int i = 0; i < 3; i++) {
+                tripleBuffer.get(i).graphics.dispose();
+            }
+        } else if (renderGraphics != null) {
+            renderGraphics.dispose(); // Clean up graphics resources
+        }
+        if (volatileBuffer != null) {
+            volatileBuffer.flush();
+        }
+        if (compositor != null) {
+            compositor.shutdown();
+        }
+        synchronized (this) {
+            if (screenshots != null) {
+                screenshots.shutdown();
+            }
+        }
+        stopRecording();
+        if (frame != null) {
+            javax.swing.SwingUtilities.invokeLater(() -> frame.dispose()); // Clean up the frame on EDT
+        }
     }
 
     public SceneManager getSceneManager() {
@@ -164,11 +756,26 @@ public class NeoLightEngine {
     /**
      * Gets the JFrame instance used for display.
      * This can be used to add input listeners or customize the window.
+     * Returns null when running headless.
      */
     public javax.swing.JFrame getFrame() {
         return frame;
     }
 
+    /**
+     * Gets the width of the internal render resolution scenes draw at.
+     */
+    public int getRenderWidth() {
+        return renderWidth;
+    }
+
+    /**
+     * Gets the height of the internal render resolution scenes draw at.
+     */
+    public int getRenderHeight() {
+        return renderHeight;
+    }
+
     /**
      * Checks if the window currently has focus.
      */
@@ -183,6 +790,158 @@ public class NeoLightEngine {
         return game;
     }
 
+    /**
+     * Checks if the engine runs without a window.
+     */
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * Checks if frames are drawn into an accelerated VolatileImage instead of the render buffer.
+     */
+    public boolean isAccelerated() {
+        return accelerated;
+    }
+
+    /**
+     * Gets the parallel compositor scenes queue draw commands on,
+     * or null unless EngineConfig.parallelCompositing is set.
+     */
+    public ParallelCompositor getCompositor() {
+        return compositor;
+    }
+
+    /**
+     * Gets the post processor whose effects run over every finished frame, after the game
+     * has drawn, or null when running headless without headlessRender.
+     * Like lighting, effects need the software render buffer, so an engine rendering into
+     * an accelerated surface switches to the software buffer once effects are added.
+     */
+    public PostProcessor getPostProcessor() {
+        return postProcessor;
+    }
+
+    /**
+     * Gets the offscreen buffer frames are rendered into.
+     * In pipelined mode this is the buffer of the frame currently being drawn.
+     * Not drawn into while {@link #isAccelerated()} is true.
+     * Returns null when running headless without headlessRender.
+     */
+    public java.awt.image.BufferedImage getRenderBuffer() {
+        return renderBuffer;
+    }
+
+    /**
+     * Saves the next rendered frame as a PNG file. Can be called from any thread.
+     * The game loop only copies the frame's pixels; encoding and writing happen in the background.
+     * If earlier screenshots are still being written, the capture is dropped rather than
+     * delaying the frame, and the returned future fails.
+     * @param file Where to write the PNG
+     * @return Completes with the file once it has been written
+     */
+    public java.util.concurrent.CompletableFuture<java.nio.file.Path> requestScreenshot(java.nio.file.Path file) {
+        if (renderBuffer == null) {
+            return java.util.concurrent.CompletableFuture.failedFuture(
+                new IllegalStateException("Nothing is rendered when running headless without headlessRender"));
+        }
+        synchronized (this) {
+            if (screenshots == null) {
+                screenshots = new ScreenshotWriter(renderWidth, renderHeight);
+            }
+            return screenshots.request(file);
+        }
+    }
+
+    /**
+     * Starts recording rendered frames to disk, replacing any recording in progress.
+     * A Y4M video is labelled with the target frame rate, or 60 frames per second when uncapped.
+     * @param output Directory for a PNG sequence, or the file for a Y4M video
+     * @param format How frames are written
+     * @param frameInterval Record one frame out of this many
+     * @return The recorder, for reading its written and dropped frame counts
+     * @throws java.io.IOException If the output can't be created
+     * @see #startRecording(java.nio.file.Path, FrameRecorder.Format, int, int)
+     */
+    public FrameRecorder startRecording(java.nio.file.Path output, FrameRecorder.Format format, int frameInterval)
+            throws java.io.IOException {
+        int targetFps = framePacer.getTargetFps();
+        return startRecording(output, format, frameInterval, targetFps > 0 ? targetFps : DEFAULT_RECORDING_FPS);
+    }
+
+    /**
+     * Starts recording rendered frames to disk, replacing any recording in progress.
+     * Frames are encoded by background workers; when they fall behind, frames are dropped
+     * and counted by the recorder rather than slowing the game down.
+     * @param output Directory for a PNG sequence, or the file for a Y4M video
+     * @param format How frames are written
+     * @param frameInterval Record one frame out of this many
+     * @param frameRate Frames per second written to the Y4M header. This is nominal: frames are
+     *                  recorded as they are rendered, so a video only plays back at game speed
+     *                  when the game actually rendered at this rate
+     * @return The recorder, for reading its written and dropped frame counts
+     * @throws java.io.IOException If the output can't be created
+     */
+    public FrameRecorder startRecording(java.nio.file.Path output, FrameRecorder.Format format, int frameInterval,
+                                        int frameRate) throws java.io.IOException {
+        if (renderBuffer == null) {
+            throw new IllegalStateException("Nothing is rendered when running headless without headlessRender");
+        }
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        FrameRecorder started = new FrameRecorder(renderWidth, renderHeight, output, format, frameInterval,
+            frameRate, workers, workers * 2);
+        FrameRecorder previous;
+        synchronized (this) {
+            previous = recorder;
+            recorder = started;
+        }
+        if (previous != null) {
+            previous.stop();
+        }
+        return started;
+    }
+
+    /**
+     * Stops the recording in progress, if any.
+     * @return Completes once all captured frames are written, or null if nothing was recording
+     */
+    public java.util.concurrent.CompletableFuture<Void> stopRecording() {
+        FrameRecorder stopped;
+        synchronized (this) {
+            stopped = recorder;
+            recorder = null;
+        }
+        return stopped != null ? stopped.stop() : null;
+    }
+
+    /**
+     * Gets the recording in progress, or null.
+     */
+    public FrameRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Gets timing statistics for all frames run so far.
+     */
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * Gets the frame pacer, e.g. to change the target frame rate or read missed deadlines.
+     */
+    public FramePacer getFramePacer() {
+        return framePacer;
+    }
+
+    /**
+     * Gets the engine configuration.
+     */
+    public EngineConfig getConfig() {
+        return config;
+    }
+
     // Utility for delta time calculation
     private double computeDeltaTime() {
         long now = System.nanoTime();
@@ -190,4 +949,17 @@ public class NeoLightEngine {
         lastFrameTime = now;
         return delta;
     }
+
+    /**
+     * An offscreen image and the graphics context used to draw into it.
+     */
+    private static class RenderSurface {
+        final java.awt.image.BufferedImage image;
+        final java.awt.Graphics2D graphics;
+
+        RenderSurface(java.awt.image.BufferedImage image, java.awt.Graphics2D graphics) {
+            this.image = image;
+            this.graphics = graphics;
+        }
+    }
 }
@@ -0,0 +1,460 @@
+package com.neostudios.starlight.neolight;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.neostudios.starlight.neolight.particles.ParticleRasterizer;
+
+/**
+ * Rasterizes sprites, rectangles and particles across all CPU cores.
+ * Draw commands are recorded during the frame, then the target is split into square
+ * tiles, each command is binned into the tiles it touches, and the tiles are drawn in
+ * parallel on a fork-join pool straight into the target's pixel array. Each tile replays
+ * its commands in submission order, so the result matches drawing them one by one.
+ * <p>
+ * Sprite pixels are copied out of each image the first time it is drawn and reused after
+ * that, so images must not change once drawn; call forgetImage if one does.
+ */
+public class ParallelCompositor {
+    private static final int DEFAULT_TILE_SIZE = 64;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final byte FILL = 0;
+    private static final byte SPRITE = 1;
+    private static final byte PARTICLE = 2;
+
+    private final int tileSize;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    // Rasterizers are stateful, so each worker thread gets its own
+    private final ThreadLocal<ParticleRasterizer> rasterizers;
+    // Unpremultiplied ARGB pixels of each sprite image, copied on first use
+    private final Map<BufferedImage, int[]> spritePixels;
+
+    // Recorded commands; bounds are the pixels each command may touch
+    private byte[] types;
+    private int[] left, top, right, bottom;
+    private int[] colors, opacities;
+    private int[][] sources;
+    private int[] sourceWidths, sourceHeights;
+    private float[] particleX, particleY, particleSize;
+    private ParticleRasterizer.BlendMode[] blendModes;
+    private int count;
+
+    // Tile bins: binStart[t] to binStart[t + 1] index into binned
+    private int[] binStart;
+    private int[] binned;
+
+    // Target of the composite in progress
+    private int[] pixels;
+    private int offset, stride, tilesX, tilesY;
+    private int clipX0, clipY0, clipX1, clipY1;
+    private BufferedImage target;
+
+    /**
+     * Creates a compositor with 64-pixel tiles and a pool with one thread per core.
+     */
+    public ParallelCompositor() {
+        this(DEFAULT_TILE_SIZE, new ForkJoinPool(Runtime.getRuntime().availableProcessors()), true);
+    }
+
+    /**
+     * @param tileSize Tile width and height in pixels
+     * @param pool The pool to rasterize tiles on
+     */
+    public ParallelCompositor(int tileSize, ForkJoinPool pool) {
+        this(tileSize, pool, false);
+    }
+
+    private ParallelCompositor(int tileSize, ForkJoinPool pool, boolean ownsPool) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
+        }
+        this.tileSize = tileSize;
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.rasterizers = ThreadLocal.withInitial(ParticleRasterizer::new);
+        this.spritePixels = new WeakHashMap<>();
+        this.types = new byte[INITIAL_CAPACITY];
+        this.left = new int[INITIAL_CAPACITY];
+        this.top = new int[INITIAL_CAPACITY];
+        this.right = new int[INITIAL_CAPACITY];
+        this.bottom = new int[INITIAL_CAPACITY];
+        this.colors = new int[INITIAL_CAPACITY];
+        this.opacities = new int[INITIAL_CAPACITY];
+        this.sources = new int[INITIAL_CAPACITY][];
+        this.sourceWidths = new int[INITIAL_CAPACITY];
+        this.sourceHeights = new int[INITIAL_CAPACITY];
+        this.particleX = new float[INITIAL_CAPACITY];
+        this.particleY = new float[INITIAL_CAPACITY];
+        this.particleSize = new float[INITIAL_CAPACITY];
+        this.blendModes = new ParticleRasterizer.BlendMode[INITIAL_CAPACITY];
+        this.binStart = new int[1];
+        this.binned = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Queues a filled rectangle.
+     * @param argb Colour as 0xAARRGGBB; the alpha channel is its opacity
+     */
+    public void fillRect(int x, int y, int width, int height, int argb) {
+        int alpha = argb >>> 24;
+        if (width <= 0 || height <= 0 || alpha == 0) {
+            return;
+        }
+        int i = next(FILL, x, y, x + width, y + height);
+        colors[i] = argb;
+        opacities[i] = alpha + (alpha >>> 7);
+    }
+
+    /**
+     * Queues a sprite at its own size and full opacity.
+     */
+    public void drawSprite(BufferedImage image, int x, int y) {
+        drawSprite(image, x, y, image.getWidth(), image.getHeight(), 1.0f);
+    }
+
+    /**
+     * Queues a sprite, scaled with nearest-neighbour sampling.
+     * @param image The sprite image
+     * @param x Left edge
+     * @param y Top edge
+     * @param width Drawn width
+     * @param height Drawn height
+     * @param alpha Opacity from 0 to 1
+     */
+    public void drawSprite(BufferedImage image, int x, int y, int width, int height, float alpha) {
+        if (image == null || width <= 0 || height <= 0 || alpha <= 0) {
+            return;
+        }
+        int i = next(SPRITE, x, y, x + width, y + height);
+        sources[i] = pixelsOf(image);
+        sourceWidths[i] = image.getWidth();
+        sourceHeights[i] = image.getHeight();
+        opacities[i] = (int) (Math.min(alpha, 1.0f) * 256);
+    }
+
+    /**
+     * Queues a particle, drawn as a soft circle like ParticleRasterizer draws it.
+     * @param x Centre x
+     * @param y Centre y
+     * @param size Diameter in pixels
+     * @param rgb Colour as 0xRRGGBB
+     * @param alpha Opacity from 0 to 1
+     * @param blendMode How the particle combines with what is beneath it
+     */
+    public void drawParticle(float x, float y, float size, int rgb, float alpha, ParticleRasterizer.BlendMode blendMode) {
+        if (alpha <= 0) {
+            return;
+        }
+        float radius = Math.max(0.5f, size * 0.5f) + 1;
+        int i = next(PARTICLE, (int) Math.floor(x - radius), (int) Math.floor(y - radius),
+            (int) Math.ceil(x + radius), (int) Math.ceil(y + radius));
+        particleX[i] = x;
+        particleY[i] = y;
+        particleSize[i] = size;
+        colors[i] = rgb;
+        opacities[i] = Math.round(Math.min(alpha, 1.0f) * 255);
+        blendModes[i] = blendMode;
+    }
+
+    /**
+     * Draws all queued commands into an image, in parallel. The commands stay queued,
+     * so a frame can be composited region by region; call clear() when the frame is done.
+     * @param image An image of TYPE_INT_RGB, TYPE_INT_ARGB or TYPE_INT_ARGB_PRE
+     * @param clip Area to draw into, or null for the whole image
+     * @return false if the image's pixels can't be written directly
+     */
+    public boolean composite(BufferedImage image, Rectangle clip) {
+        int type = image.getType();
+        WritableRaster raster = image.getRaster();
+        if ((type != BufferedImage.TYPE_INT_RGB && type != BufferedImage.TYPE_INT_ARGB
+                && type != BufferedImage.TYPE_INT_ARGB_PRE)
+            || !(raster.getSampleModel() instanceof SinglePixelPackedSampleModel)) {
+            return false;
+        }
+        if (count == 0) {
+            return true;
+        }
+
+        DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+        stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+        offset = buffer.getOffset()
+            - raster.getSampleModelTranslateX()
+            - raster.getSampleModelTranslateY() * stride;
+        pixels = buffer.getData();
+        target = image;
+        clipX0 = 0;
+        clipY0 = 0;
+        clipX1 = image.getWidth();
+        clipY1 = image.getHeight();
+        if (clip != null) {
+            clipX0 = Math.max(clipX0, clip.x);
+            clipY0 = Math.max(clipY0, clip.y);
+            clipX1 = Math.min(clipX1, clip.x + clip.width);
+            clipY1 = Math.min(clipY1, clip.y + clip.height);
+        }
+        if (clipX0 >= clipX1 || clipY0 >= clipY1) {
+            return true;
+        }
+
+        tilesX = (image.getWidth() + tileSize - 1) / tileSize;
+        tilesY = (image.getHeight() + tileSize - 1) / tileSize;
+        bin();
+        try {
+            pool.invoke(new TileTask(0, tilesX * tilesY));
+        } finally {
+            pixels = null;
+            target = null;
+        }
+        return true;
+    }
+
+    /**
+     * Discards all queued commands.
+     */
+    public void clear() {
+        Arrays.fill(sources, 0, count, null);
+        Arrays.fill(blendModes, 0, count, null);
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Drops the copied pixels of an image, so changes to it show the next time it is drawn.
+     */
+    public void forgetImage(BufferedImage image) {
+        spritePixels.remove(image);
+    }
+
+    /**
+     * Stops the compositor's own thread pool. A pool passed to the constructor is left running.
+     */
+    public void shutdown() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Sorts command indices into per-tile lists with a counting pass and a fill pass,
+     * keeping submission order within each tile.
+     */
+    private void bin() {
+        int tileCount = tilesX * tilesY;
+        if (binStart.length < tileCount + 1) {
+            binStart = new int[tileCount + 1];
+        }
+        Arrays.fill(binStart, 0, tileCount + 1, 0);
+
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            int tx0 = tileStart(left[i], clipX0), tx1 = tileEnd(right[i], clipX1);
+            int ty0 = tileStart(top[i], clipY0), ty1 = tileEnd(bottom[i], clipY1);
+            for (int ty = ty0; ty <= ty1; ty++) {
+                for (int tx = tx0; tx <= tx1; tx++) {
+                    binStart[ty * tilesX + tx + 1]++;
+                    total++;
+                }
+            }
+        }
+        for (int t = 0; t < tileCount; t++) {
+            binStart[t + 1] += binStart[t];
+        }
+        if (binned.length < total) {
+            binned = new int[Math.max(total, binned.length * 2)];
+        }
+
+        // Fill from the start of each bin, using the next bin's start as a cursor, then shift back
+        for (int i = 0; i < count; i++) {
+            int tx0 = tileStart(left[i], clipX0), tx1 = tileEnd(right[i], clipX1);
+            int ty0 = tileStart(top[i], clipY0), ty1 = tileEnd(bottom[i], clipY1);
+            for (int ty = ty0; ty <= ty1; ty++) {
+                for (int tx = tx0; tx <= tx1; tx++) {
+                    binned[binStart[ty * tilesX + tx]++] = i;
+                }
+            }
+        }
+        for (int t = tileCount; t > 0; t--) {
+            binStart[t] = binStart[t - 1];
+        }
+        binStart[0] = 0;
+    }
+
+    private int tileStart(int edge, int clipEdge) {
+        return Math.max(edge, clipEdge) / tileSize;
+    }
+
+    private int tileEnd(int edge, int clipEdge) {
+        // Returns less than tileStart when the command misses the clip, so it lands in no tile
+        int last = Math.min(edge, clipEdge) - 1;
+        return last < 0 ? -1 : last / tileSize;
+    }
+
+    private void rasterizeTile(int tile) {
+        int from = binStart[tile], to = binStart[tile + 1];
+        if (from == to) {
+            return;
+        }
+        int tx0 = Math.max(clipX0, (tile % tilesX) * tileSize);
+        int ty0 = Math.max(clipY0, (tile / tilesX) * tileSize);
+        int tx1 = Math.min(clipX1, (tile % tilesX + 1) * tileSize);
+        int ty1 = Math.min(clipY1, (tile / tilesX + 1) * tileSize);
+
+        ParticleRasterizer rasterizer = null;
+        for (int b = from; b < to; b++) {
+            int i = binned[b];
+            if (types[i] == PARTICLE) {
+                if (rasterizer == null) {
+                    rasterizer = rasterizers.get();
+                    rasterizer.begin(target);
+                    rasterizer.setClip(tx0, ty0, tx1 - tx0, ty1 - ty0);
+                }
+                rasterizer.setBlendMode(blendModes[i]);
+                rasterizer.draw(particleX[i], particleY[i], particleSize[i], colors[i], opacities[i] / 255.0f);
+                continue;
+            }
+            int x0 = Math.max(tx0, left[i]), x1 = Math.min(tx1, right[i]);
+            int y0 = Math.max(ty0, top[i]), y1 = Math.min(ty1, bottom[i]);
+            if (x0 >= x1 || y0 >= y1) {
+                continue;
+            }
+            if (types[i] == FILL) {
+                fill(i, x0, y0, x1, y1);
+            } else {
+                blit(i, x0, y0, x1, y1);
+            }
+        }
+    }
+
+    private void fill(int i, int x0, int y0, int x1, int y1) {
+        int color = colors[i];
+        int a = opacities[i];
+        for (int y = y0; y < y1; y++) {
+            int row = offset + y * stride;
+            if (a == 256) {
+                Arrays.fill(pixels, row + x0, row + x1, color | 0xFF000000);
+            } else {
+                for (int x = x0; x < x1; x++) {
+                    pixels[row + x] = blend(pixels[row + x], color, a);
+                }
+            }
+        }
+    }
+
+    private void blit(int i, int x0, int y0, int x1, int y1) {
+        int[] src = sources[i];
+        int srcWidth = sourceWidths[i], srcHeight = sourceHeights[i];
+        int width = right[i] - left[i], height = bottom[i] - top[i];
+        int opacity = opacities[i];
+        // 16.16 fixed-point source steps for nearest-neighbour scaling
+        long stepX = ((long) srcWidth << 16) / width;
+        long stepY = ((long) srcHeight << 16) / height;
+
+        for (int y = y0; y < y1; y++) {
+            int srcRow = (int) (((y - top[i]) * stepY) >>> 16) * srcWidth;
+            int row = offset + y * stride;
+            long u = (x0 - left[i]) * stepX;
+            for (int x = x0; x < x1; x++, u += stepX) {
+                int color = src[srcRow + (int) (u >>> 16)];
+                int srcAlpha = color >>> 24;
+                int a = ((srcAlpha + (srcAlpha >>> 7)) * opacity) >>> 8;
+                if (a == 256) {
+                    pixels[row + x] = color;
+                } else if (a != 0) {
+                    pixels[row + x] = blend(pixels[row + x], color, a);
+                }
+            }
+        }
+    }
+
+    /**
+     * Blends a colour over a pixel, two channels at a time.
+     * @param a Opacity from 0 to 256
+     */
+    private static int blend(int dst, int src, int a) {
+        int inverse = 256 - a;
+        int dstA = dst >>> 24;
+        int outA = dstA + (((255 - dstA) * a) >>> 8);
+        int rb = (((dst & 0xFF00FF) * inverse + (src & 0xFF00FF) * a) >>> 8) & 0xFF00FF;
+        int g = (((dst & 0x00FF00) * inverse + (src & 0x00FF00) * a) >>> 8) & 0x00FF00;
+        return (outA << 24) | rb | g;
+    }
+
+    private int[] pixelsOf(BufferedImage image) {
+        int[] data = spritePixels.get(image);
+        if (data == null) {
+            data = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+            spritePixels.put(image, data);
+        }
+        return data;
+    }
+
+    private int next(byte type, int x0, int y0, int x1, int y1) {
+        if (count == types.length) {
+            grow();
+        }
+        int i = count++;
+        types[i] = type;
+        left[i] = x0;
+        top[i] = y0;
+        right[i] = x1;
+        bottom[i] = y1;
+        return i;
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        left = Arrays.copyOf(left, capacity);
+        top = Arrays.copyOf(top, capacity);
+        right = Arrays.copyOf(right, capacity);
+        bottom = Arrays.copyOf(bottom, capacity);
+        colors = Arrays.copyOf(colors, capacity);
+        opacities = Arrays.copyOf(opacities, capacity);
+        sources = Arrays.copyOf(sources, capacity);
+        sourceWidths = Arrays.copyOf(sourceWidths, capacity);
+        sourceHeights = Arrays.copyOf(sourceHeights, capacity);
+        particleX = Arrays.copyOf(particleX, capacity);
+        particleY = Arrays.copyOf(particleY, capacity);
+        particleSize = Arrays.copyOf(particleSize, capacity);
+        blendModes = Arrays.copyOf(blendModes, capacity);
+    }
+
+    /**
+     * Rasterizes a range of tiles, splitting it while it is large enough to share out.
+     */
+    @SuppressWarnings("serial")
+    private final class TileTask extends RecursiveAction {
+        private static final int TILES_PER_TASK = 4;
+        private final int from, to;
+
+        TileTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TILES_PER_TASK) {
+                for (int tile = from; tile < to; tile++) {
+                    rasterizeTile(tile);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new TileTask(from, middle), new TileTask(middle, to));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.neostudios.starlight.neolight;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed number of reusable pixel buffers for handing frames from the game thread to
+ * background workers. Buffers are allocated on first use and returned with release();
+ * when all of them are in use, acquire() returns null instead of allocating more,
+ * so callers can drop work rather than wait or grow memory without bound.
+ * Safe to use from any thread.
+ */
+public class PixelBufferPool {
+    private static final DirectColorModel RGB = new DirectColorModel(24, 0xFF0000, 0x00FF00, 0x0000FF);
+
+    private final int bufferSize;
+    private final int capacity;
+    private final ArrayBlockingQueue<int[]> free;
+    private final AtomicInteger allocated = new AtomicInteger();
+
+    /**
+     * @param bufferSize Length of each buffer, in pixels
+     * @param capacity Most buffers that can be in use at once
+     */
+    public PixelBufferPool(int bufferSize, int capacity) {
+        if (bufferSize <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Buffer size and capacity must be positive");
+        }
+        this.bufferSize = bufferSize;
+        this.capacity = capacity;
+        this.free = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Takes a free buffer. Its contents are whatever its last user left in it.
+     * @return A buffer, or null if all buffers are in use
+     */
+    public int[] acquire() {
+        int[] buffer = free.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        if (allocated.incrementAndGet() <= capacity) {
+            return new int[bufferSize];
+        }
+        allocated.decrementAndGet();
+        return null;
+    }
+
+    /**
+     * Returns a buffer taken with acquire().
+     */
+    public void release(int[] buffer) {
+        if (buffer.length == bufferSize && !free.offer(buffer)) {
+            allocated.decrementAndGet();
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Copies an image's pixels into a buffer as 0xAARRGGBB, row by row without padding.
+     * Integer RGB images are copied a row at a time; other images go through getRGB.
+     * @param image The source image
+     * @param buffer Destination, at least width * height long
+     */
+    public static void copyPixels(BufferedImage image, int[] buffer) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int type = image.getType();
+        WritableRaster raster = image.getRaster();
+        if ((type != BufferedImage.TYPE_INT_RGB && type != BufferedImage.TYPE_INT_ARGB
+                && type != BufferedImage.TYPE_INT_ARGB_PRE)
+            || !(raster.getSampleModel() instanceof SinglePixelPackedSampleModel)) {
+            image.getRGB(0, 0, width, height, buffer, 0, width);
+            return;
+        }
+        DataBufferInt data = (DataBufferInt) raster.getDataBuffer();
+        int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+        int offset = data.getOffset()
+            - raster.getSampleModelTranslateX()
+            - raster.getSampleModelTranslateY() * stride;
+        int[] pixels = data.getData();
+        if (stride == width) {
+            System.arraycopy(pixels, offset, buffer, 0, width * height);
+            return;
+        }
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(pixels, offset + y * stride, buffer, y * width, width);
+        }
+    }
+
+    /**
+     * Wraps a buffer filled by copyPixels as an opaque image, without copying it.
+     * The alpha byte of each pixel is ignored.
+     */
+    public static BufferedImage wrapPixels(int[] buffer, int width, int height) {
+        WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(buffer, width * height),
+            width, height, width, RGB.getMasks(), null);
+        return new BufferedImage(RGB, raster, false, null);
+    }
+}
@@ -0,0 +1,206 @@
+package com.neostudios.starlight.neolight;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import com.neostudios.starlight.neolight.particles.ParticleRasterizer;
+
+/**
+ * A recorded list of draw operations, replayed later by a {@link RenderCommandRenderer}.
+ * Recording only writes into primitive arrays that are reused from frame to frame, so a
+ * buffer costs no allocation once it has grown to a frame's size. A recorded frame can be
+ * replayed any number of times, against a Graphics2D or straight into pixels, and on
+ * another thread once it has been handed over (for example through a {@link TripleBuffer}).
+ * <p>
+ * Coordinates are in target pixels. Consecutive particles with the same blend mode are
+ * stored as one batch.
+ */
+public class RenderCommandBuffer {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INITIAL_PARTICLES = 256;
+
+    static final byte SPRITE = 0;
+    static final byte RECT = 1;
+    static final byte TEXT = 2;
+    static final byte PARTICLES = 3;
+
+    // One entry per command. Particle batches keep their first particle in x and their count in width.
+    byte[] types;
+    int[] x, y, width, height;
+    // ARGB colour of rects, opacity (0-255) of sprites
+    int[] colors;
+    // Image of sprites, string of text, blend mode of particle batches
+    Object[] refs;
+    Font[] fonts;
+    Color[] textColors;
+    int count;
+
+    // Particles of all batches, in order
+    float[] particleX, particleY, particleSize, particleAlpha;
+    int[] particleColor;
+    int particleCount;
+
+    public RenderCommandBuffer() {
+        this.types = new byte[INITIAL_CAPACITY];
+        this.x = new int[INITIAL_CAPACITY];
+        this.y = new int[INITIAL_CAPACITY];
+        this.width = new int[INITIAL_CAPACITY];
+        this.height = new int[INITIAL_CAPACITY];
+        this.colors = new int[INITIAL_CAPACITY];
+        this.refs = new Object[INITIAL_CAPACITY];
+        this.fonts = new Font[INITIAL_CAPACITY];
+        this.textColors = new Color[INITIAL_CAPACITY];
+        this.particleX = new float[INITIAL_PARTICLES];
+        this.particleY = new float[INITIAL_PARTICLES];
+        this.particleSize = new float[INITIAL_PARTICLES];
+        this.particleAlpha = new float[INITIAL_PARTICLES];
+        this.particleColor = new int[INITIAL_PARTICLES];
+    }
+
+    /**
+     * Records a sprite at its own size and full opacity.
+     */
+    public void drawSprite(BufferedImage image, int x, int y) {
+        if (image != null) {
+            drawSprite(image, x, y, image.getWidth(), image.getHeight(), 1.0f);
+        }
+    }
+
+    /**
+     * Records a sprite.
+     * @param image The sprite image
+     * @param x Left edge
+     * @param y Top edge
+     * @param width Drawn width
+     * @param height Drawn height
+     * @param alpha Opacity from 0 to 1
+     */
+    public void drawSprite(BufferedImage image, int x, int y, int width, int height, float alpha) {
+        int opacity = Math.min(255, Math.round(alpha * 255));
+        if (image == null || width <= 0 || height <= 0 || opacity <= 0) {
+            return;
+        }
+        int i = next(SPRITE, x, y, width, height);
+        colors[i] = opacity;
+        refs[i] = image;
+    }
+
+    /**
+     * Records a filled rectangle.
+     * @param argb Colour as 0xAARRGGBB; the alpha channel is its opacity
+     */
+    public void fillRect(int x, int y, int width, int height, int argb) {
+        if (width <= 0 || height <= 0 || (argb >>> 24) == 0) {
+            return;
+        }
+        int i = next(RECT, x, y, width, height);
+        colors[i] = argb;
+    }
+
+    /**
+     * Records a string, drawn through the {@link TextCache}.
+     * @param text The text
+     * @param font The font
+     * @param color The text colour
+     * @param x Left edge of the text
+     * @param y Baseline of the text
+     */
+    public void drawText(String text, Font font, Color color, int x, int y) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        int i = next(TEXT, x, y, 0, 0);
+        refs[i] = text;
+        fonts[i] = font;
+        textColors[i] = color;
+    }
+
+    /**
+     * Records a round particle.
+     * @param x Centre x
+     * @param y Centre y
+     * @param size Diameter
+     * @param rgb Colour as 0xRRGGBB
+     * @param alpha Opacity from 0 to 1
+     * @param blendMode How the particle combines with what is beneath it
+     */
+    public void drawParticle(float x, float y, float size, int rgb, float alpha, ParticleRasterizer.BlendMode blendMode) {
+        if (size <= 0 || alpha <= 0) {
+            return;
+        }
+        int last = count - 1;
+        if (last < 0 || types[last] != PARTICLES || refs[last] != blendMode) {
+            last = next(PARTICLES, particleCount, 0, 0, 0);
+            refs[last] = blendMode;
+        }
+        if (particleCount == particleX.length) {
+            int capacity = particleCount * 2;
+            particleX = Arrays.copyOf(particleX, capacity);
+            particleY = Arrays.copyOf(particleY, capacity);
+            particleSize = Arrays.copyOf(particleSize, capacity);
+            particleAlpha = Arrays.copyOf(particleAlpha, capacity);
+            particleColor = Arrays.copyOf(particleColor, capacity);
+        }
+        particleX[particleCount] = x;
+        particleY[particleCount] = y;
+        particleSize[particleCount] = size;
+        particleAlpha[particleCount] = Math.min(alpha, 1.0f);
+        particleColor[particleCount] = rgb & 0xFFFFFF;
+        particleCount++;
+        width[last]++;
+    }
+
+    /**
+     * Discards all recorded commands, keeping the arrays for the next frame.
+     */
+    public void clear() {
+        // Drop references so images and strings of old frames can be collected
+        Arrays.fill(refs, 0, count, null);
+        Arrays.fill(fonts, 0, count, null);
+        Arrays.fill(textColors, 0, count, null);
+        count = 0;
+        particleCount = 0;
+    }
+
+    /**
+     * Gets the number of recorded commands; a particle batch counts as one.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the number of recorded particles across all batches.
+     */
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    private int next(byte type, int x, int y, int width, int height) {
+        if (count == types.length) {
+            grow();
+        }
+        int i = count++;
+        types[i] = type;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.width[i] = width;
+        this.height[i] = height;
+        return i;
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        colors = Arrays.copyOf(colors, capacity);
+        refs = Arrays.copyOf(refs, capacity);
+        fonts = Arrays.copyOf(fonts, capacity);
+        textColors = Arrays.copyOf(textColors, capacity);
+    }
+}
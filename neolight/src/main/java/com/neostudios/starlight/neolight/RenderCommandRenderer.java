@@ -0,0 +1,150 @@
+package com.neostudios.starlight.neolight;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+
+import com.neostudios.starlight.neolight.particles.ParticleRasterizer;
+
+/**
+ * Executes the commands of a {@link RenderCommandBuffer}, without changing the buffer.
+ * Replaying into a Graphics2D works with any target; replaying into pixels goes through
+ * a {@link ParallelCompositor}, which also blends additive particles that Java2D can't.
+ */
+public class RenderCommandRenderer {
+    private static final AlphaComposite[] COMPOSITES = new AlphaComposite[256];
+
+    // Used for raster targets when no compositor is given; created on first use
+    private ParallelCompositor compositor;
+
+    /**
+     * Draws the commands with Java2D, in recorded order.
+     * Additive particles are drawn with alpha blending.
+     * @param commands The recorded commands
+     * @param g The graphics context
+     */
+    public void render(RenderCommandBuffer commands, Graphics2D g) {
+        Composite originalComposite = g.getComposite();
+        Color originalColor = g.getColor();
+        TextCache textCache = TextCache.getInstance();
+        int currentOpacity = 255;
+        // Commands never have a fully transparent colour, so 0 means none set yet
+        int currentColor = 0;
+        for (int i = 0; i < commands.count; i++) {
+            byte type = commands.types[i];
+            // Only sprites are drawn with an opacity composite; colours carry their own alpha
+            int compositeOpacity = type == RenderCommandBuffer.SPRITE ? commands.colors[i] : 255;
+            if (compositeOpacity != currentOpacity) {
+                g.setComposite(compositeOpacity == 255 ? originalComposite : composite(compositeOpacity));
+                currentOpacity = compositeOpacity;
+            }
+            switch (type) {
+                case RenderCommandBuffer.SPRITE:
+                    g.drawImage((BufferedImage) commands.refs[i], commands.x[i], commands.y[i],
+                        commands.width[i], commands.height[i], null);
+                    break;
+                case RenderCommandBuffer.RECT:
+                    currentColor = setColor(g, commands.colors[i], currentColor);
+                    g.fillRect(commands.x[i], commands.y[i], commands.width[i], commands.height[i]);
+                    break;
+                case RenderCommandBuffer.TEXT:
+                    textCache.drawString(g, (String) commands.refs[i], commands.fonts[i], commands.textColors[i],
+                        commands.x[i], commands.y[i]);
+                    break;
+                default:
+                    int end = commands.x[i] + commands.width[i];
+                    for (int p = commands.x[i]; p < end; p++) {
+                        int opacity = Math.round(commands.particleAlpha[p] * 255);
+                        if (opacity == 0) {
+                            continue;
+                        }
+                        int argb = opacity << 24 | commands.particleColor[p];
+                        currentColor = setColor(g, argb, currentColor);
+                        float size = commands.particleSize[p];
+                        g.fillOval((int) (commands.particleX[p] - size / 2), (int) (commands.particleY[p] - size / 2),
+                            (int) size, (int) size);
+                    }
+                    break;
+            }
+        }
+        g.setComposite(originalComposite);
+        g.setColor(originalColor);
+    }
+
+    /**
+     * Queues the commands on a compositor, to be drawn by its next composite().
+     * @param commands The recorded commands
+     * @param compositor The compositor to queue them on
+     */
+    public void render(RenderCommandBuffer commands, ParallelCompositor compositor) {
+        TextCache textCache = TextCache.getInstance();
+        for (int i = 0; i < commands.count; i++) {
+            switch (commands.types[i]) {
+                case RenderCommandBuffer.SPRITE:
+                    compositor.drawSprite((BufferedImage) commands.refs[i], commands.x[i], commands.y[i],
+                        commands.width[i], commands.height[i], commands.colors[i] / 255.0f);
+                    break;
+                case RenderCommandBuffer.RECT:
+                    compositor.fillRect(commands.x[i], commands.y[i], commands.width[i], commands.height[i],
+                        commands.colors[i]);
+                    break;
+                case RenderCommandBuffer.TEXT:
+                    TextCache.CachedText text = textCache.get((String) commands.refs[i], commands.fonts[i],
+                        commands.textColors[i]);
+                    if (text.getImage() != null) {
+                        compositor.drawSprite(text.getImage(),
+                            commands.x[i] + text.getOffsetX(), commands.y[i] + text.getOffsetY());
+                    }
+                    break;
+                default:
+                    ParticleRasterizer.BlendMode blendMode = (ParticleRasterizer.BlendMode) commands.refs[i];
+                    int end = commands.x[i] + commands.width[i];
+                    for (int p = commands.x[i]; p < end; p++) {
+                        compositor.drawParticle(commands.particleX[p], commands.particleY[p], commands.particleSize[p],
+                            commands.particleColor[p], commands.particleAlpha[p], blendMode);
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Draws the commands straight into an image's pixels, on the common fork-join pool.
+     * @param commands The recorded commands
+     * @param target An image of TYPE_INT_RGB, TYPE_INT_ARGB or TYPE_INT_ARGB_PRE
+     * @param clip Area to draw, or null for the whole image
+     * @return false if the image's pixels can't be written directly; draw with a Graphics2D instead
+     */
+    public boolean render(RenderCommandBuffer commands, BufferedImage target, Rectangle clip) {
+        if (compositor == null) {
+            compositor = new ParallelCompositor(64, ForkJoinPool.commonPool());
+        }
+        try {
+            render(commands, compositor);
+            return compositor.composite(target, clip);
+        } finally {
+            compositor.clear();
+        }
+    }
+
+    private static int setColor(Graphics2D g, int argb, int currentColor) {
+        // Color objects are only created when the colour changes
+        if (argb != currentColor) {
+            g.setColor(new Color(argb, true));
+        }
+        return argb;
+    }
+
+    private static AlphaComposite composite(int opacity) {
+        AlphaComposite composite = COMPOSITES[opacity];
+        if (composite == null) {
+            composite = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, opacity / 255.0f);
+            COMPOSITES[opacity] = composite;
+        }
+        return composite;
+    }
+}
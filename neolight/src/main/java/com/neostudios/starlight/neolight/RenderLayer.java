@@ -0,0 +1,111 @@
+package com.neostudios.starlight.neolight;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.function.Consumer;
+
+/**
+ * A layer of scene content drawn in screen space, beneath the scene's own rendering.
+ * A static layer is painted once into a cached image and that image is drawn each frame
+ * until the layer is invalidated, which suits backgrounds and other content that rarely
+ * changes. An opaque layer covers the whole screen, so the engine can skip clearing it.
+ */
+public class RenderLayer {
+    private final Consumer<Graphics2D> painter;
+    private final boolean isStatic;
+    private final boolean opaque;
+    private boolean visible;
+    private BufferedImage cache;
+    private boolean valid;
+
+    /**
+     * @param painter Draws the layer's content into the given graphics context
+     * @param isStatic Whether to cache the content until invalidate() is called
+     * @param opaque Whether the content covers every pixel of the screen
+     */
+    public RenderLayer(Consumer<Graphics2D> painter, boolean isStatic, boolean opaque) {
+        this.painter = painter;
+        this.isStatic = isStatic;
+        this.opaque = opaque;
+        this.visible = true;
+    }
+
+    /**
+     * Draws the layer, repainting its cache first if needed.
+     * @param g The graphics context
+     * @param width Width of the screen area the layer covers
+     * @param height Height of the screen area
+     */
+    public void render(Graphics2D g, int width, int height) {
+        if (!visible) {
+            return;
+        }
+        if (!isStatic || width <= 0 || height <= 0) {
+            painter.accept(g);
+            return;
+        }
+        if (cache == null || cache.getWidth() != width || cache.getHeight() != height) {
+            cache = AssetManager.getInstance().createCompatibleImage(width, height,
+                opaque ? Transparency.OPAQUE : Transparency.TRANSLUCENT);
+            valid = false;
+        }
+        if (!valid) {
+            paintCache(width, height);
+            valid = true;
+        }
+        g.drawImage(cache, 0, 0, null);
+    }
+
+    /**
+     * Makes a static layer repaint its content the next time it is drawn.
+     * With dirty-region rendering, also invalidate the scene area the layer covers.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Drops the cached image, freeing its memory until the layer is drawn again.
+     */
+    public void releaseCache() {
+        cache = null;
+        valid = false;
+    }
+
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public boolean isStatic() {
+        return isStatic;
+    }
+
+    public boolean isOpaque() {
+        return opaque;
+    }
+
+    private void paintCache(int width, int height) {
+        Graphics2D g = cache.createGraphics();
+        try {
+            // Start from a blank image; opaque layers start from black
+            if (opaque) {
+                g.setColor(Color.BLACK);
+                g.fillRect(0, 0, width, height);
+            } else {
+                g.setComposite(AlphaComposite.Clear);
+                g.fillRect(0, 0, width, height);
+                g.setComposite(AlphaComposite.SrcOver);
+            }
+            painter.accept(g);
+        } finally {
+            g.dispose();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.neostudios.starlight.neolight;
+
+import java.util.Arrays;
+
+/**
+ * Orders draw items by packed 64-bit sort keys.
+ * Keys are compared as unsigned numbers and sorted with a stable radix sort over arrays
+ * that are reused between frames, so sorting costs O(n) and allocates nothing once the
+ * queue has grown to its working size. Items with equal keys keep their submission order.
+ * Use key(layer, depth, texture) to build keys, or pack custom ones the same way.
+ * @param <T> The item type
+ */
+public class RenderQueue<T> {
+    private static final int INITIAL_CAPACITY = 64;
+    // Below this size a stable insertion sort beats the radix passes
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private Object[] items;
+    private long[] keys, scratchKeys;
+    private int[] order, scratchOrder;
+    private final int[] counts;
+    private int count;
+
+    public RenderQueue() {
+        this.items = new Object[INITIAL_CAPACITY];
+        this.keys = new long[INITIAL_CAPACITY];
+        this.scratchKeys = new long[INITIAL_CAPACITY];
+        this.order = new int[INITIAL_CAPACITY];
+        this.scratchOrder = new int[INITIAL_CAPACITY];
+        this.counts = new int[8 * 256];
+    }
+
+    /**
+     * Packs a sort key: layer first, then depth (e.g. y for top-down games), then texture.
+     * @param layer Draw layer (-32768 to 32767); lower layers are drawn first
+     * @param depth Depth within the layer; lower depths are drawn first
+     * @param texture Texture or state ID (0 to 65535), to group items that share state
+     * @return The packed key
+     */
+    public static long key(int layer, int depth, int texture) {
+        long sortLayer = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, layer)) - Short.MIN_VALUE;
+        // Flipping the sign bit makes signed depths sort correctly as unsigned numbers
+        long sortDepth = (depth ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+        return (sortLayer << 48) | (sortDepth << 16) | (texture & 0xFFFF);
+    }
+
+    /**
+     * Adds an item to the queue.
+     * @param item The item
+     * @param key Its sort key, compared as an unsigned number
+     */
+    public void add(T item, long key) {
+        if (count == keys.length) {
+            grow();
+        }
+        items[count] = item;
+        keys[count] = key;
+        order[count] = count;
+        count++;
+    }
+
+    /**
+     * Sorts the queued items by key. Call once after all items are added.
+     */
+    public void sort() {
+        if (count <= INSERTION_SORT_THRESHOLD) {
+            insertionSort();
+        } else {
+            radixSort();
+        }
+    }
+
+    /**
+     * Gets the item at a position in sorted order.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int i) {
+        return (T) items[order[i]];
+    }
+
+    /**
+     * Gets the key at a position in sorted order.
+     */
+    public long getKey(int i) {
+        return keys[i];
+    }
+
+    /**
+     * Gets the submission index of the item at a position in sorted order,
+     * for callers that keep per-item data in their own arrays.
+     */
+    public int getIndex(int i) {
+        return order[i];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Empties the queue, keeping its arrays for the next frame.
+     */
+    public void clear() {
+        Arrays.fill(items, 0, count, null);
+        count = 0;
+    }
+
+    private void insertionSort() {
+        for (int i = 1; i < count; i++) {
+            long key = keys[i];
+            int index = order[i];
+            int j = i - 1;
+            while (j >= 0 && Long.compareUnsigned(keys[j], key) > 0) {
+                keys[j + 1] = keys[j];
+                order[j + 1] = order[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            order[j + 1] = index;
+        }
+    }
+
+    private void radixSort() {
+        // Count every byte of every key in a single pass
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < count; i++) {
+            long key = keys[i];
+            for (int pass = 0; pass < 8; pass++) {
+                counts[(pass << 8) | (int) ((key >>> (pass << 3)) & 0xFF)]++;
+            }
+        }
+
+        long[] srcKeys = keys, dstKeys = scratchKeys;
+        int[] srcOrder = order, dstOrder = scratchOrder;
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass << 3;
+            int base = pass << 8;
+            // Skip bytes that are the same in every key, which is common for unused key fields
+            if (counts[base | (int) ((srcKeys[0] >>> shift) & 0xFF)] == count) {
+                continue;
+            }
+            int offset = 0;
+            for (int b = 0; b < 256; b++) {
+                int c = counts[base | b];
+                counts[base | b] = offset;
+                offset += c;
+            }
+            for (int i = 0; i < count; i++) {
+                long key = srcKeys[i];
+                int position = counts[base | (int) ((key >>> shift) & 0xFF)]++;
+                dstKeys[position] = key;
+                dstOrder[position] = srcOrder[i];
+            }
+            long[] swapKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = swapKeys;
+            int[] swapOrder = srcOrder;
+            srcOrder = dstOrder;
+            dstOrder = swapOrder;
+        }
+        keys = srcKeys;
+        scratchKeys = dstKeys;
+        order = srcOrder;
+        scratchOrder = dstOrder;
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        items = Arrays.copyOf(items, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        scratchKeys = new long[capacity];
+        order = Arrays.copyOf(order, capacity);
+        scratchOrder = new int[capacity];
+    }
+}
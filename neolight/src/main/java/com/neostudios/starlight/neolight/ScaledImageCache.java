@@ -0,0 +1,106 @@
+package com.neostudios.starlight.neolight;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Caches scaled copies of images so sprites are scaled once instead of on every draw.
+ * Entries are kept in least-recently-used order up to a fixed count, and held through
+ * soft references so the garbage collector can drop them when memory runs low.
+ */
+class ScaledImageCache {
+    private final int maxEntries;
+    private final BiFunction<Integer, Integer, BufferedImage> imageFactory;
+    private final Map<Key, SoftReference<BufferedImage>> entries;
+
+    /**
+     * @param maxEntries Maximum number of scaled images kept
+     * @param imageFactory Creates an empty image of the given width and height
+     */
+    ScaledImageCache(int maxEntries, BiFunction<Integer, Integer, BufferedImage> imageFactory) {
+        this.maxEntries = maxEntries;
+        this.imageFactory = imageFactory;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, SoftReference<BufferedImage>> eldest) {
+                return size() > ScaledImageCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets a scaled copy of an image, creating it on first use.
+     * @param interpolation A RenderingHints.VALUE_INTERPOLATION_* value
+     */
+    synchronized BufferedImage get(BufferedImage image, int width, int height, Object interpolation) {
+        Key key = new Key(image, width, height, interpolation);
+        SoftReference<BufferedImage> ref = entries.get(key);
+        BufferedImage scaled = ref != null ? ref.get() : null;
+        if (scaled == null) {
+            scaled = scale(image, width, height, interpolation);
+            entries.put(key, new SoftReference<>(scaled));
+        }
+        return scaled;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private BufferedImage scale(BufferedImage image, int width, int height, Object interpolation) {
+        BufferedImage scaled = imageFactory.apply(width, height);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Identifies a scaled variant by source image identity, size and interpolation.
+     */
+    private static final class Key {
+        final BufferedImage image;
+        final int width, height;
+        final Object interpolation;
+
+        Key(BufferedImage image, int width, int height, Object interpolation) {
+            this.image = image;
+            this.width = width;
+            this.height = height;
+            this.interpolation = interpolation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return image == other.image && width == other.width && height == other.height
+                && interpolation == other.interpolation;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = System.identityHashCode(image);
+            h = 31 * h + width;
+            h = 31 * h + height;
+            return 31 * h + System.identityHashCode(interpolation);
+        }
+    }
+}
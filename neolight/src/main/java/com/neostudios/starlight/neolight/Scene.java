@@ -1,12 +1,28 @@
 package com.neostudios.starlight.neolight;
 
 import java.awt.Graphics;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.neostudios.starlight.neolight.lighting.LightMap;
 
 /**
  * Base class for all game scenes.
  * Provides lifecycle methods and basic functionality for scene management.
  */
 public abstract class Scene {
+    // Regions invalidated since the engine last collected them (dirty-region rendering only)
+    private final DirtyRegions dirtyRegions = new DirtyRegions();
+    // View onto the scene's world; the scene manager sizes its viewport to the render area
+    private final Camera camera = new Camera();
+    // Lighting multiplied over render() output before renderOverlay(); null for none
+    private LightMap lightMap;
+    // Screen-space layers drawn beneath render(), in the order added
+    private final List<RenderLayer> layers = new ArrayList<>();
+    // Set by the scene manager when the engine composites in parallel
+    private ParallelCompositor compositor;
+    
     /**
      * Called when the scene is first created.
      * Use this for initialization that doesn't depend on other scenes.
@@ -63,6 +79,156 @@ public abstract class Scene {
         // Default implementation does nothing
     }
     
+    /**
+     * Called every frame to render the scene with an interpolation alpha.
+     * When the engine runs a fixed timestep, rendering happens between simulation ticks;
+     * alpha is how far the current frame lies between the previous tick (0) and the latest one (1).
+     * Override this to blend previous and current positions. The default ignores alpha.
+     * @param g The graphics context
+     * @param alpha Interpolation alpha between the previous and current simulation state
+     */
+    public void render(java.awt.Graphics2D g, double alpha) {
+        render(g);
+    }
+    
+    /**
+     * Called every frame after render() to record draw commands instead of drawing directly.
+     * The scene manager replays them over render()'s output, through the engine's parallel
+     * compositor when it has one. Recorded commands can also be inspected or replayed again
+     * through {@link SceneManager#getCommandBuffer()}, e.g. when profiling a frame.
+     * @param commands An empty command buffer; coordinates are in render pixels
+     * @param alpha Interpolation alpha between the previous and current simulation state
+     */
+    public void record(RenderCommandBuffer commands, double alpha) {
+        // Default implementation records nothing
+    }
+    
+    /**
+     * Adds a layer drawn beneath the scene's render() output, above layers added earlier.
+     * @param layer The layer to add
+     */
+    public void addLayer(RenderLayer layer) {
+        layers.add(layer);
+        invalidateAll();
+    }
+    
+    /**
+     * Removes a layer.
+     * @param layer The layer to remove
+     */
+    public void removeLayer(RenderLayer layer) {
+        if (layers.remove(layer)) {
+            layer.releaseCache();
+            invalidateAll();
+        }
+    }
+    
+    public List<RenderLayer> getLayers() {
+        return Collections.unmodifiableList(layers);
+    }
+    
+    /**
+     * Draws the scene's layers. Called by the scene manager before render().
+     * @param g The graphics context
+     */
+    public void renderLayers(java.awt.Graphics2D g) {
+        for (int i = 0; i < layers.size(); i++) {
+            layers.get(i).render(g, camera.getViewportWidth(), camera.getViewportHeight());
+        }
+    }
+    
+    /**
+     * Checks whether a visible opaque layer covers the whole screen, in which case
+     * the engine doesn't need to clear the frame before drawing the scene.
+     */
+    public boolean isOpaque() {
+        for (int i = 0; i < layers.size(); i++) {
+            RenderLayer layer = layers.get(i);
+            if (layer.isVisible() && layer.isOpaque()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Called every frame after render() and the lighting pass, to draw content that
+     * should not be lit, such as the HUD or pause screens.
+     * @param g The graphics context
+     */
+    public void renderOverlay(java.awt.Graphics2D g) {
+        // Default implementation does nothing
+    }
+    
+    /**
+     * Marks part of the screen as changed so it is redrawn.
+     * Only needed when the engine runs with dirty-region rendering; in that mode a scene
+     * is only redrawn where it (or the engine, e.g. on scene switches) invalidated it.
+     * @param x Left edge in render coordinates
+     * @param y Top edge in render coordinates
+     * @param width Region width
+     * @param height Region height
+     */
+    public void invalidate(int x, int y, int width, int height) {
+        dirtyRegions.add(x, y, width, height);
+    }
+    
+    /**
+     * Marks the whole screen as changed so the next frame is fully redrawn.
+     */
+    public void invalidateAll() {
+        dirtyRegions.addAll();
+    }
+    
+    /**
+     * Moves the regions invalidated since the last call into the given set.
+     * Override to add regions reported by other systems; the UISystem and GameUI are already included.
+     * @param regions The set to add this scene's dirty regions to
+     */
+    public void collectDirtyRegions(DirtyRegions regions) {
+        regions.addAll(dirtyRegions);
+        dirtyRegions.clear();
+    }
+    
+    /**
+     * Gets the scene's camera.
+     * Scenes apply it when drawing world objects and use it to skip objects outside the view.
+     */
+    public Camera getCamera() {
+        return camera;
+    }
+    
+    /**
+     * Gets the engine's parallel compositor, or null unless parallel compositing is enabled.
+     * Commands queued on it in render() are drawn over the scene's Graphics2D output,
+     * before lighting.
+     */
+    public ParallelCompositor getCompositor() {
+        return compositor;
+    }
+    
+    void setCompositor(ParallelCompositor compositor) {
+        this.compositor = compositor;
+    }
+    
+    /**
+     * Gets the light map the engine applies over this scene, or null if it is unlit.
+     */
+    public LightMap getLightMap() {
+        return lightMap;
+    }
+    
+    /**
+     * Sets a light map for the engine to multiply over everything drawn in render(),
+     * before renderOverlay() runs. Lights are in render coordinates; the map should be
+     * the size of the render area. Pass null to turn lighting off.
+     * Lighting needs the software render buffer, so an engine rendering into an accelerated
+     * surface switches to the software buffer once a light map is set.
+     */
+    public void setLightMap(LightMap lightMap) {
+        this.lightMap = lightMap;
+    }
+    
     /**
      * Called when the scene is being destroyed.
      * Use this for final cleanup of resources.
@@ -5,6 +5,10 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
+import com.neostudios.starlight.neolight.lighting.LightMap;
+import com.neostudios.starlight.neolight.ui.GameUI;
+import com.neostudios.starlight.neolight.ui.UISystem;
+
 /**
  * Manages game scenes with support for transitions, scene stacking, and proper lifecycle management.
  */
@@ -16,8 +20,27 @@ public class SceneManager {
     private Scene currentScene;
     private SceneTransition currentTransition;
     private boolean isTransitioning;
+    // Scene shown in the last frame the dirty regions were collected for
+    private Scene lastCollectedScene;
+    // Viewport size given to the cameras of added scenes; 0 leaves them unchanged
+    private final int viewportWidth, viewportHeight;
+    // Handed to every scene; null unless the engine composites in parallel
+    private ParallelCompositor compositor;
+    // Commands recorded by the current scene in the last frame, and what replays them
+    private final RenderCommandBuffer commandBuffer = new RenderCommandBuffer();
+    private final RenderCommandRenderer commandRenderer = new RenderCommandRenderer();
     
     public SceneManager() {
+        this(0, 0);
+    }
+    
+    /**
+     * @param viewportWidth Width of the render area, set as the viewport of each added scene's camera
+     * @param viewportHeight Height of the render area
+     */
+    public SceneManager(int viewportWidth, int viewportHeight) {
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
         this.scenes = new ConcurrentHashMap<>();
         this.sceneStack = new Stack<>();
         this.isTransitioning = false;
@@ -32,10 +55,25 @@ public class SceneManager {
         if (scenes.containsKey(name)) {
             LOGGER.warning("Scene '" + name + "' already exists. Overwriting.");
         }
+        if (viewportWidth > 0 && viewportHeight > 0) {
+            scene.getCamera().setViewport(viewportWidth, viewportHeight);
+        }
+        scene.setCompositor(compositor);
         scenes.put(name, scene);
         LOGGER.info("Added scene: " + name);
     }
     
+    /**
+     * Sets the parallel compositor given to all scenes.
+     * @param compositor The compositor, or null for none
+     */
+    public void setCompositor(ParallelCompositor compositor) {
+        this.compositor = compositor;
+        for (Scene scene : scenes.values()) {
+            scene.setCompositor(compositor);
+        }
+    }
+    
     /**
      * Removes a scene from the manager.
      * @param name The name of the scene to remove
@@ -199,8 +237,63 @@ public class SceneManager {
      * @param g The graphics context
      */
     public void render(java.awt.Graphics2D g) {
+        render(g, 1.0);
+    }
+    
+    /**
+     * Renders the current scene and any active transition with an interpolation alpha.
+     * @param g The graphics context
+     * @param alpha Interpolation alpha between the previous and current simulation state (0 to 1)
+     */
+    public void render(java.awt.Graphics2D g, double alpha) {
+        renderScene(g, alpha);
+        renderOverlay(g);
+    }
+    
+    /**
+     * Renders the lit part of the current scene, before the lighting pass.
+     * @param g The graphics context
+     * @param alpha Interpolation alpha between the previous and current simulation state (0 to 1)
+     */
+    public void renderScene(java.awt.Graphics2D g, double alpha) {
         if (currentScene != null) {
-            currentScene.render(g);
+            currentScene.renderLayers(g);
+            currentScene.render(g, alpha);
+            commandBuffer.clear();
+            currentScene.record(commandBuffer, alpha);
+            if (commandBuffer.size() == 0) {
+                return;
+            }
+            if (compositor != null) {
+                commandRenderer.render(commandBuffer, compositor);
+            } else {
+                commandRenderer.render(commandBuffer, g);
+            }
+        }
+    }
+    
+    /**
+     * Gets the draw commands the current scene recorded for the last frame.
+     * They stay valid until the next frame is rendered.
+     */
+    public RenderCommandBuffer getCommandBuffer() {
+        return commandBuffer;
+    }
+    
+    /**
+     * Checks whether the current scene covers the whole screen with an opaque layer.
+     */
+    public boolean isOpaque() {
+        return currentScene != null && currentScene.isOpaque();
+    }
+    
+    /**
+     * Renders the current scene's overlay and any active transition, after the lighting pass.
+     * @param g The graphics context
+     */
+    public void renderOverlay(java.awt.Graphics2D g) {
+        if (currentScene != null) {
+            currentScene.renderOverlay(g);
         }
         
         if (isTransitioning && currentTransition != null) {
@@ -208,6 +301,31 @@ public class SceneManager {
         }
     }
     
+    /**
+     * Gets the current scene's light map, or null if it is unlit.
+     */
+    public LightMap getLightMap() {
+        return currentScene != null ? currentScene.getLightMap() : null;
+    }
+    
+    /**
+     * Adds the screen regions that changed since the last call.
+     * Switching scenes or running a transition invalidates the whole screen.
+     * Changed elements of the shared UI systems are included, since scenes draw them.
+     * @param regions The set to add dirty regions to
+     */
+    public void collectDirtyRegions(DirtyRegions regions) {
+        if (currentScene != lastCollectedScene || isTransitioning) {
+            lastCollectedScene = currentScene;
+            regions.addAll();
+        }
+        if (currentScene != null) {
+            currentScene.collectDirtyRegions(regions);
+        }
+        UISystem.getInstance().collectDirtyRegions(regions);
+        GameUI.getInstance().collectDirtyRegions(regions);
+    }
+    
     /**
      * Gets the current scene.
      * @return The current scene, or null if none is active
@@ -0,0 +1,146 @@
+package com.neostudios.starlight.neolight;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+
+/**
+ * Saves frames as PNG files without stalling the game loop.
+ * Requests can come from any thread and are served at the end of the next frame: the game
+ * thread only copies the frame's pixels into a pooled buffer, and a background thread encodes
+ * and writes the file. At most QUEUE_CAPACITY captures wait for the writer; further captures
+ * are dropped and their futures fail instead of blocking the frame.
+ */
+class ScreenshotWriter {
+    private static final int QUEUE_CAPACITY = 2;
+
+    private final int width, height;
+    // One buffer per waiting capture plus the one being written
+    private final PixelBufferPool pool;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentLinkedQueue<Request> requests = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param width Frame width in pixels
+     * @param height Frame height in pixels
+     */
+    ScreenshotWriter(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pool = new PixelBufferPool(width * height, QUEUE_CAPACITY + 1);
+        this.executor = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "NeoLight-Screenshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+        // The writer thread only exists while there is something to write
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues a capture of the next frame.
+     * @param file Where to write the PNG; missing parent directories are created
+     * @return Completes with the file once written, or exceptionally if the capture was dropped or failed
+     */
+    CompletableFuture<Path> request(Path file) {
+        Request request = new Request(file);
+        if (executor.isShutdown()) {
+            request.future.completeExceptionally(new IllegalStateException("Engine stopped"));
+        } else {
+            requests.add(request);
+        }
+        return request.future;
+    }
+
+    boolean hasRequests() {
+        return !requests.isEmpty();
+    }
+
+    /**
+     * Copies a finished frame for all pending requests and hands it to the writer thread.
+     * Called on the game thread at the end of a frame.
+     * @param frame The frame, width by height pixels
+     */
+    void capture(BufferedImage frame) {
+        List<Request> batch = new ArrayList<>(1);
+        for (Request request; (request = requests.poll()) != null; ) {
+            batch.add(request);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        int[] pixels = pool.acquire();
+        if (pixels == null) {
+            fail(batch, new RejectedExecutionException("Screenshot dropped, writer is busy"));
+            return;
+        }
+        PixelBufferPool.copyPixels(frame, pixels);
+        try {
+            executor.execute(() -> write(pixels, batch));
+        } catch (RejectedExecutionException e) {
+            pool.release(pixels);
+            fail(batch, e);
+        }
+    }
+
+    /**
+     * Stops accepting captures. Frames already copied are still written.
+     */
+    void shutdown() {
+        executor.shutdown();
+        List<Request> pending = new ArrayList<>();
+        for (Request request; (request = requests.poll()) != null; ) {
+            pending.add(request);
+        }
+        fail(pending, new IllegalStateException("Engine stopped"));
+    }
+
+    private void write(int[] pixels, List<Request> batch) {
+        try {
+            BufferedImage image = PixelBufferPool.wrapPixels(pixels, width, height);
+            for (Request request : batch) {
+                try {
+                    Path parent = request.file.toAbsolutePath().getParent();
+                    if (parent != null) {
+                        Files.createDirectories(parent);
+                    }
+                    if (!ImageIO.write(image, "png", request.file.toFile())) {
+                        throw new IOException("No PNG writer available");
+                    }
+                    request.future.complete(request.file);
+                } catch (IOException | RuntimeException e) {
+                    EngineLogger.warn("Could not write screenshot " + request.file + ": " + e.getMessage());
+                    request.future.completeExceptionally(e);
+                }
+            }
+        } finally {
+            pool.release(pixels);
+        }
+    }
+
+    private static void fail(List<Request> batch, Exception cause) {
+        for (Request request : batch) {
+            request.future.completeExceptionally(cause);
+        }
+    }
+
+    private static class Request {
+        final Path file;
+        final CompletableFuture<Path> future = new CompletableFuture<>();
+
+        Request(Path file) {
+            this.file = file;
+        }
+    }
+}
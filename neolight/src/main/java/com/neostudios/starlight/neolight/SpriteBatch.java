@@ -0,0 +1,206 @@
+package com.neostudios.starlight.neolight;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Collects sprite draws and flushes them sorted by layer, depth, texture and opacity,
+ * so Graphics2D state only changes when it has to.
+ * Sprites with the same layer and depth may be reordered to group textures; give sprites
+ * that must overlap in a particular order different layers or depths.
+ */
+public class SpriteBatch {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_TEXTURES = 1 << 16;
+    private static final int MIN_DEPTH = -(1 << 23);
+    private static final int MAX_DEPTH = (1 << 23) - 1;
+    // Shared composites for each quantized opacity, created on first use
+    private static final AlphaComposite[] COMPOSITES = new AlphaComposite[256];
+
+    private final RenderQueue<Image> queue;
+    private int[] xs, ys, widths, heights;
+    private int count;
+    private final Map<Object, Integer> textureIds;
+    private Object interpolation;
+    private Camera camera;
+
+    public SpriteBatch() {
+        this.queue = new RenderQueue<>();
+        this.xs = new int[INITIAL_CAPACITY];
+        this.ys = new int[INITIAL_CAPACITY];
+        this.widths = new int[INITIAL_CAPACITY];
+        this.heights = new int[INITIAL_CAPACITY];
+        this.count = 0;
+        this.textureIds = new IdentityHashMap<>();
+        this.interpolation = RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+    }
+
+    /**
+     * Queues a sprite on layer 0 at full opacity.
+     */
+    public void draw(Image image, int x, int y, int width, int height) {
+        draw(image, x, y, width, height, 0, 1.0f);
+    }
+
+    /**
+     * Queues a sprite at full opacity.
+     * @param layer Draw layer; lower layers are drawn first
+     */
+    public void draw(Image image, int x, int y, int width, int height, int layer) {
+        draw(image, x, y, width, height, layer, 1.0f);
+    }
+
+    /**
+     * Queues a sprite.
+     * @param image The sprite image
+     * @param x Left edge
+     * @param y Top edge
+     * @param width Drawn width
+     * @param height Drawn height
+     * @param layer Draw layer (-32768 to 32767); lower layers are drawn first
+     * @param alpha Opacity from 0 to 1
+     */
+    public void draw(Image image, int x, int y, int width, int height, int layer, float alpha) {
+        draw(image, x, y, width, height, layer, 0, alpha);
+    }
+
+    /**
+     * Queues a sprite with a depth within its layer, e.g. its bottom edge for y-sorting.
+     * @param image The sprite image
+     * @param x Left edge
+     * @param y Top edge
+     * @param width Drawn width
+     * @param height Drawn height
+     * @param layer Draw layer (-32768 to 32767); lower layers are drawn first
+     * @param depth Depth within the layer (-8388608 to 8388607); lower depths are drawn first
+     * @param alpha Opacity from 0 to 1
+     */
+    public void draw(Image image, int x, int y, int width, int height, int layer, int depth, float alpha) {
+        if (image == null || alpha <= 0) {
+            return;
+        }
+        if (camera != null && !camera.isVisible(x, y, width, height)) {
+            return;
+        }
+        if (count == xs.length) {
+            grow();
+        }
+
+        int opacity = Math.round(Math.min(alpha, 1.0f) * 255);
+        int texture = textureId(image);
+        long sortLayer = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, layer)) - Short.MIN_VALUE;
+        long sortDepth = Math.max(MIN_DEPTH, Math.min(MAX_DEPTH, depth)) - MIN_DEPTH;
+
+        xs[count] = x;
+        ys[count] = y;
+        widths[count] = width;
+        heights[count] = height;
+        // layer:16 | depth:24 | texture:16 | opacity:8
+        queue.add(image, (sortLayer << 48) | (sortDepth << 24) | ((long) texture << 8) | opacity);
+        count++;
+    }
+
+    /**
+     * Draws all queued sprites in sorted order and empties the batch.
+     * @param g The graphics context
+     */
+    public void flush(Graphics2D g) {
+        if (count == 0) {
+            return;
+        }
+
+        queue.sort();
+
+        Composite originalComposite = g.getComposite();
+        Object originalInterpolation = g.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+
+        int currentOpacity = -1;
+        for (int i = 0; i < count; i++) {
+            int index = queue.getIndex(i);
+            int opacity = (int) queue.getKey(i) & 0xFF;
+            if (opacity != currentOpacity) {
+                g.setComposite(opacity == 255 ? originalComposite : composite(opacity));
+                currentOpacity = opacity;
+            }
+            g.drawImage(queue.get(i), xs[index], ys[index], widths[index], heights[index], null);
+        }
+
+        g.setComposite(originalComposite);
+        if (originalInterpolation != null) {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, originalInterpolation);
+        }
+        clear();
+    }
+
+    /**
+     * Discards all queued sprites.
+     */
+    public void clear() {
+        queue.clear();
+        textureIds.clear();
+        count = 0;
+    }
+
+    /**
+     * Gets the number of queued sprites.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Sets the interpolation used when sprites are scaled (a RenderingHints.VALUE_INTERPOLATION_* value).
+     * Defaults to nearest neighbour, which suits pixel art.
+     */
+    public void setInterpolation(Object interpolation) {
+        this.interpolation = interpolation;
+    }
+
+    /**
+     * Sets a camera whose view sprites are culled against; sprites outside it are dropped
+     * when queued. Coordinates are then world coordinates, so apply the camera to the
+     * graphics context before flushing. Pass null to disable culling.
+     */
+    public void setCamera(Camera camera) {
+        this.camera = camera;
+    }
+
+    private int textureId(Image image) {
+        // Atlas regions are subimages sharing their page's pixels, so group them by that
+        Object texture = image instanceof BufferedImage
+            ? ((BufferedImage) image).getRaster().getDataBuffer()
+            : image;
+        Integer id = textureIds.get(texture);
+        if (id == null) {
+            // Past the limit textures share ids, which only costs some sorting quality
+            id = textureIds.size() % MAX_TEXTURES;
+            textureIds.put(texture, id);
+        }
+        return id;
+    }
+
+    private static AlphaComposite composite(int opacity) {
+        AlphaComposite composite = COMPOSITES[opacity];
+        if (composite == null) {
+            composite = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, opacity / 255.0f);
+            COMPOSITES[opacity] = composite;
+        }
+        return composite;
+    }
+
+    private void grow() {
+        int capacity = xs.length * 2;
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        widths = Arrays.copyOf(widths, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+    }
+}
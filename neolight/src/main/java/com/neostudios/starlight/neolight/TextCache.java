@@ -0,0 +1,186 @@
+package com.neostudios.starlight.neolight;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Caches rendered text as bitmaps, so labels that rarely change are laid out and
+ * rasterized once instead of every frame. Entries are keyed by font, string and colour
+ * and evicted least-recently-used first.
+ */
+public class TextCache {
+    private static final int DEFAULT_MAX_ENTRIES = 256;
+    private static TextCache instance;
+
+    private final FontRenderContext fontRenderContext;
+    private final Map<Key, CachedText> entries;
+    private int maxEntries;
+
+    private TextCache() {
+        this.fontRenderContext = new FontRenderContext(null, true, false);
+        this.maxEntries = DEFAULT_MAX_ENTRIES;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedText> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static synchronized TextCache getInstance() {
+        if (instance == null) {
+            instance = new TextCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the rendered bitmap and metrics for a string, rendering it on first use.
+     * @param text The string
+     * @param font The font
+     * @param color The text colour
+     * @return The cached text
+     */
+    public synchronized CachedText get(String text, Font font, Color color) {
+        Key key = new Key(text, font, color);
+        CachedText cached = entries.get(key);
+        if (cached == null) {
+            cached = render(text, font, color);
+            entries.put(key, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Draws a string like Graphics.drawString, from the cache.
+     * @param g The graphics context
+     * @param text The string
+     * @param font The font
+     * @param color The text colour
+     * @param x Left edge of the text
+     * @param y Baseline of the text
+     */
+    public void drawString(Graphics2D g, String text, Font font, Color color, int x, int y) {
+        get(text, font, color).draw(g, x, y);
+    }
+
+    /**
+     * Sets the maximum number of cached strings.
+     */
+    public synchronized void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private CachedText render(String text, Font font, Color color) {
+        LineMetrics lineMetrics = font.getLineMetrics(text, fontRenderContext);
+        GlyphVector glyphs = font.createGlyphVector(fontRenderContext, text);
+        int advance = (int) Math.round(glyphs.getLogicalBounds().getWidth());
+        Rectangle bounds = glyphs.getPixelBounds(fontRenderContext, 0, 0);
+
+        BufferedImage image = null;
+        if (!bounds.isEmpty()) {
+            image = AssetManager.getInstance().createCompatibleImage(bounds.width, bounds.height);
+            Graphics2D g = image.createGraphics();
+            try {
+                g.setComposite(AlphaComposite.Src);
+                g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                g.setColor(color);
+                g.drawGlyphVector(glyphs, -bounds.x, -bounds.y);
+            } finally {
+                g.dispose();
+            }
+        }
+
+        return new CachedText(image, bounds.x, bounds.y, advance,
+            (int) Math.ceil(lineMetrics.getAscent()),
+            (int) Math.ceil(lineMetrics.getDescent()),
+            (int) Math.ceil(lineMetrics.getLeading()));
+    }
+
+    /**
+     * A rendered string and its metrics.
+     */
+    public static class CachedText {
+        private final BufferedImage image;
+        // Offset of the bitmap from the text origin (left edge, baseline)
+        private final int offsetX, offsetY;
+        private final int advance;
+        private final int ascent, descent, leading;
+
+        CachedText(BufferedImage image, int offsetX, int offsetY, int advance, int ascent, int descent, int leading) {
+            this.image = image;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+            this.advance = advance;
+            this.ascent = ascent;
+            this.descent = descent;
+            this.leading = leading;
+        }
+
+        /**
+         * Draws the text.
+         * @param g The graphics context
+         * @param x Left edge of the text
+         * @param y Baseline of the text
+         */
+        public void draw(Graphics2D g, int x, int y) {
+            if (image != null) {
+                g.drawImage(image, x + offsetX, y + offsetY, null);
+            }
+        }
+
+        /** Width of the text, as FontMetrics.stringWidth would report it. */
+        public int getWidth() { return advance; }
+        public int getAscent() { return ascent; }
+        public int getDescent() { return descent; }
+        /** Line height, as FontMetrics.getHeight would report it. */
+        public int getHeight() { return ascent + descent + leading; }
+
+        /** The rendered bitmap, or null for text with no visible pixels. */
+        BufferedImage getImage() { return image; }
+        /** Offset of the bitmap from the text origin. */
+        int getOffsetX() { return offsetX; }
+        int getOffsetY() { return offsetY; }
+    }
+
+    private static final class Key {
+        final String text;
+        final Font font;
+        final Color color;
+
+        Key(String text, Font font, Color color) {
+            this.text = text;
+            this.font = font;
+            this.color = color;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return text.equals(other.text) && font.equals(other.font) && color.equals(other.color);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(text, font, color);
+        }
+    }
+}
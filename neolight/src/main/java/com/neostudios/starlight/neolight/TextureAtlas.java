@@ -0,0 +1,154 @@
+package com.neostudios.starlight.neolight;
+
+import java.awt.Graphics2D;
+import java.awt.AlphaComposite;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of small images packed into a few large page images.
+ * Each packed image is available as a region whose image is a subimage of its page,
+ * so all regions on a page share one raster. Create atlases with AssetManager.packAtlas.
+ */
+public class TextureAtlas {
+    // Empty border around each region so filtering never samples a neighbour
+    private static final int PADDING = 1;
+
+    private final List<BufferedImage> pages;
+    private final Map<String, Region> regions;
+
+    private TextureAtlas(List<BufferedImage> pages, Map<String, Region> regions) {
+        this.pages = pages;
+        this.regions = regions;
+    }
+
+    /**
+     * Packs images into pages using shelf packing, tallest images first.
+     * Images that do not fit on an empty page keep their own image and are not packed.
+     * @param images Images to pack, by name
+     * @param pageSize Width and height of each page
+     * @param pageFactory Creates an empty page of the given size
+     */
+    static TextureAtlas pack(Map<String, BufferedImage> images, int pageSize, PageFactory pageFactory) {
+        List<Map.Entry<String, BufferedImage>> sorted = new ArrayList<>(images.entrySet());
+        sorted.sort((a, b) -> Integer.compare(b.getValue().getHeight(), a.getValue().getHeight()));
+
+        List<BufferedImage> pages = new ArrayList<>();
+        Map<String, Region> regions = new LinkedHashMap<>();
+
+        BufferedImage page = null;
+        Graphics2D pageGraphics = null;
+        int shelfX = 0, shelfY = 0, shelfHeight = 0;
+
+        for (Map.Entry<String, BufferedImage> entry : sorted) {
+            BufferedImage image = entry.getValue();
+            int w = image.getWidth() + PADDING * 2;
+            int h = image.getHeight() + PADDING * 2;
+            if (w > pageSize || h > pageSize) {
+                regions.put(entry.getKey(), new Region(entry.getKey(), -1, 0, 0, image));
+                continue;
+            }
+
+            if (page != null && shelfX + w > pageSize) {
+                // Start a new shelf below the current one
+                shelfY += shelfHeight;
+                shelfX = 0;
+                shelfHeight = 0;
+            }
+            if (page == null || shelfY + h > pageSize) {
+                if (pageGraphics != null) {
+                    pageGraphics.dispose();
+                }
+                page = pageFactory.create(pageSize, pageSize);
+                pageGraphics = page.createGraphics();
+                pageGraphics.setComposite(AlphaComposite.Src);
+                pages.add(page);
+                shelfX = 0;
+                shelfY = 0;
+                shelfHeight = 0;
+            }
+
+            int x = shelfX + PADDING;
+            int y = shelfY + PADDING;
+            pageGraphics.drawImage(image, x, y, null);
+            regions.put(entry.getKey(), new Region(entry.getKey(), pages.size() - 1, x, y,
+                page.getSubimage(x, y, image.getWidth(), image.getHeight())));
+
+            shelfX += w;
+            shelfHeight = Math.max(shelfHeight, h);
+        }
+        if (pageGraphics != null) {
+            pageGraphics.dispose();
+        }
+        return new TextureAtlas(Collections.unmodifiableList(pages), Collections.unmodifiableMap(regions));
+    }
+
+    /**
+     * Gets a packed region by name.
+     * @return The region, or null if no image with that name was packed
+     */
+    public Region getRegion(String name) {
+        return regions.get(name);
+    }
+
+    /**
+     * Gets the image for a name, a subimage sharing its page's raster.
+     * @return The image, or null if no image with that name was packed
+     */
+    public BufferedImage getImage(String name) {
+        Region region = regions.get(name);
+        return region != null ? region.getImage() : null;
+    }
+
+    /**
+     * Gets all regions by name.
+     */
+    public Map<String, Region> getRegions() {
+        return regions;
+    }
+
+    /**
+     * Gets the page images.
+     */
+    public List<BufferedImage> getPages() {
+        return pages;
+    }
+
+    /**
+     * Creates empty atlas pages.
+     */
+    interface PageFactory {
+        BufferedImage create(int width, int height);
+    }
+
+    /**
+     * The location of one packed image within the atlas.
+     */
+    public static class Region {
+        private final String name;
+        private final int page;
+        private final int x, y;
+        private final BufferedImage image;
+
+        Region(String name, int page, int x, int y, BufferedImage image) {
+            this.name = name;
+            this.page = page;
+            this.x = x;
+            this.y = y;
+            this.image = image;
+        }
+
+        public String getName() { return name; }
+        /** Page index, or -1 if the image was too large to pack and stands alone. */
+        public int getPage() { return page; }
+        public int getX() { return x; }
+        public int getY() { return y; }
+        public int getWidth() { return image.getWidth(); }
+        public int getHeight() { return image.getHeight(); }
+        public BufferedImage getImage() { return image; }
+    }
+}
@@ -0,0 +1,81 @@
+package com.neostudios.starlight.neolight;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free triple buffer for handing frames from one producer thread to one consumer thread.
+ * The producer fills the back buffer and publishes it; the consumer acquires the most recently
+ * published buffer as its front buffer. Publishing and acquiring are single atomic swaps with the
+ * shared middle slot, so neither side ever waits for the other. Frames the consumer never saw are
+ * simply overwritten.
+ * @param <T> The buffer type
+ */
+public class TripleBuffer<T> {
+    private static final int INDEX_MASK = 0b011;
+    private static final int FRESH = 0b100;
+
+    private final Object[] buffers;
+    // Index of the shared slot, plus FRESH if it holds a frame the consumer has not taken yet
+    private final AtomicInteger middle;
+    // Owned by the producer thread
+    private int back;
+    // Owned by the consumer thread
+    private int front;
+
+    /**
+     * Creates a triple buffer.
+     * @param factory Creates each of the three buffers
+     */
+    public TripleBuffer(Supplier<T> factory) {
+        this.buffers = new Object[] { factory.get(), factory.get(), factory.get() };
+        this.back = 0;
+        this.middle = new AtomicInteger(1);
+        this.front = 2;
+    }
+
+    /**
+     * Gets the buffer the producer should write the next frame into.
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) buffers[back];
+    }
+
+    /**
+     * Publishes the back buffer as the latest frame. Producer thread only.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Takes the latest published frame as the front buffer, if a new one is available.
+     * Consumer thread only.
+     * @return true if the front buffer changed
+     */
+    public boolean acquire() {
+        if ((middle.get() & FRESH) == 0) {
+            return false;
+        }
+        front = middle.getAndSet(front) & INDEX_MASK;
+        return true;
+    }
+
+    /**
+     * Gets the buffer the consumer should present.
+     */
+    @SuppressWarnings("unchecked")
+    public T getFront() {
+        return (T) buffers[front];
+    }
+
+    /**
+     * Gets one of the three buffers, e.g. for cleanup.
+     * @param index Buffer index, 0 to 2
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) buffers[index];
+    }
+}
@@ -0,0 +1,165 @@
+package com.neostudios.starlight.neolight.animation;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * A sequence of frames with timings.
+ * A clip holds no playback state: any number of entities can play it at once, each keeping
+ * only its own elapsed time and asking the clip which frame to show.
+ */
+public class AnimationClip {
+    /** What happens when playback passes the end of the clip. */
+    public enum PlayMode {
+        /** Stop on the last frame. */
+        ONCE,
+        /** Start again from the first frame. */
+        LOOP,
+        /** Play backwards to the first frame, then forwards again. */
+        PING_PONG
+    }
+
+    private final BufferedImage[] frames;
+    // End time of each frame in seconds, from the start of the clip
+    private final double[] frameEnds;
+    // Duration of every frame when they are all equal, or 0 when they differ
+    private final double uniformDuration;
+    private final double duration;
+    private final PlayMode playMode;
+
+    /**
+     * Creates a clip from consecutive frames of a sprite sheet, all shown equally long.
+     * @param sheet The sprite sheet
+     * @param firstFrame Index of the first frame in the sheet
+     * @param frameCount Number of frames
+     * @param frameDuration How long each frame is shown, in seconds
+     * @param playMode What happens at the end of the clip
+     */
+    public AnimationClip(SpriteSheet sheet, int firstFrame, int frameCount, double frameDuration, PlayMode playMode) {
+        this(sliceFrames(sheet, firstFrame, frameCount), uniformDurations(frameCount, frameDuration), playMode);
+    }
+
+    /**
+     * Creates a clip with individual frame durations.
+     * @param frames The frames in order
+     * @param durations How long each frame is shown, in seconds
+     * @param playMode What happens at the end of the clip
+     */
+    public AnimationClip(BufferedImage[] frames, double[] durations, PlayMode playMode) {
+        if (frames.length == 0 || frames.length != durations.length) {
+            throw new IllegalArgumentException("A clip needs one duration for each of at least one frame");
+        }
+        this.frames = frames.clone();
+        this.frameEnds = new double[durations.length];
+        this.playMode = playMode;
+
+        double time = 0;
+        boolean uniform = true;
+        for (int i = 0; i < durations.length; i++) {
+            if (durations[i] <= 0) {
+                throw new IllegalArgumentException("Frame durations must be positive");
+            }
+            uniform &= durations[i] == durations[0];
+            time += durations[i];
+            frameEnds[i] = time;
+        }
+        this.duration = time;
+        this.uniformDuration = uniform ? durations[0] : 0;
+    }
+
+    /**
+     * Gets the index of the frame shown after some playing time.
+     * @param elapsed Seconds since the clip started playing
+     * @return The frame index
+     */
+    public int frameIndexAt(double elapsed) {
+        double time = clipTime(elapsed);
+        int last = frames.length - 1;
+        if (uniformDuration > 0) {
+            return Math.min(last, (int) (time / uniformDuration));
+        }
+        // Binary search for the first frame ending after the time
+        int low = 0, high = last;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (frameEnds[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the frame shown after some playing time.
+     * @param elapsed Seconds since the clip started playing
+     * @return The frame image
+     */
+    public BufferedImage getFrameAt(double elapsed) {
+        return frames[frameIndexAt(elapsed)];
+    }
+
+    /**
+     * Checks whether a ONCE clip has finished after some playing time.
+     * Looping clips never finish.
+     */
+    public boolean isFinished(double elapsed) {
+        return playMode == PlayMode.ONCE && elapsed >= duration;
+    }
+
+    public BufferedImage getFrame(int index) {
+        return frames[index];
+    }
+
+    public int getFrameCount() {
+        return frames.length;
+    }
+
+    /**
+     * Gets the length of one pass through the clip, in seconds.
+     */
+    public double getDuration() {
+        return duration;
+    }
+
+    public PlayMode getPlayMode() {
+        return playMode;
+    }
+
+    /**
+     * Maps playing time to a time within one pass of the clip.
+     */
+    private double clipTime(double elapsed) {
+        if (elapsed <= 0) {
+            return 0;
+        }
+        switch (playMode) {
+            case LOOP:
+                return elapsed % duration;
+            case PING_PONG:
+                double time = elapsed % (2 * duration);
+                return time < duration ? time : 2 * duration - time;
+            default:
+                return Math.min(elapsed, duration);
+        }
+    }
+
+    private static BufferedImage[] sliceFrames(SpriteSheet sheet, int firstFrame, int frameCount) {
+        if (firstFrame < 0 || frameCount <= 0 || firstFrame + frameCount > sheet.getFrameCount()) {
+            throw new IllegalArgumentException("Frames " + firstFrame + " to " + (firstFrame + frameCount - 1)
+                + " are outside the sheet's " + sheet.getFrameCount() + " frames");
+        }
+        BufferedImage[] frames = new BufferedImage[frameCount];
+        for (int i = 0; i < frameCount; i++) {
+            frames[i] = sheet.getFrame(firstFrame + i);
+        }
+        return frames;
+    }
+
+    private static double[] uniformDurations(int frameCount, double frameDuration) {
+        double[] durations = new double[Math.max(0, frameCount)];
+        Arrays.fill(durations, frameDuration);
+        return durations;
+    }
+}
@@ -0,0 +1,78 @@
+package com.neostudios.starlight.neolight.animation;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * A sprite sheet sliced into equally sized frames.
+ * Frames are subimages that share the sheet's pixels, so slicing copies nothing and
+ * sprite batches group all frames of a sheet as one texture.
+ */
+public class SpriteSheet {
+    private final BufferedImage image;
+    private final int frameWidth;
+    private final int frameHeight;
+    private final BufferedImage[] frames;
+
+    /**
+     * Slices a sheet into frames, left to right and top to bottom.
+     * Partial frames at the right and bottom edges are ignored.
+     * @param image The sheet image
+     * @param frameWidth Width of one frame in pixels
+     * @param frameHeight Height of one frame in pixels
+     */
+    public SpriteSheet(BufferedImage image, int frameWidth, int frameHeight) {
+        if (frameWidth <= 0 || frameHeight <= 0
+            || frameWidth > image.getWidth() || frameHeight > image.getHeight()) {
+            throw new IllegalArgumentException("Invalid frame size " + frameWidth + "x" + frameHeight
+                + " for a " + image.getWidth() + "x" + image.getHeight() + " sheet");
+        }
+        this.image = image;
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+
+        int columns = image.getWidth() / frameWidth;
+        int rows = image.getHeight() / frameHeight;
+        this.frames = new BufferedImage[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                frames[row * columns + column] = image.getSubimage(
+                    column * frameWidth, row * frameHeight, frameWidth, frameHeight);
+            }
+        }
+    }
+
+    /**
+     * Slices a horizontal strip of square frames, each as wide as the strip is tall.
+     * @param image The strip image
+     * @return The sprite sheet
+     */
+    public static SpriteSheet fromStrip(BufferedImage image) {
+        return new SpriteSheet(image, image.getHeight(), image.getHeight());
+    }
+
+    /**
+     * Gets a frame by index.
+     */
+    public BufferedImage getFrame(int index) {
+        return frames[index];
+    }
+
+    public int getFrameCount() {
+        return frames.length;
+    }
+
+    public int getFrameWidth() {
+        return frameWidth;
+    }
+
+    public int getFrameHeight() {
+        return frameHeight;
+    }
+
+    /**
+     * Gets the whole sheet image.
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+}
@@ -0,0 +1,320 @@
+package com.neostudios.starlight.neolight.lighting;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+/**
+ * Dynamic 2D lighting at reduced resolution.
+ * Lights are accumulated as radial falloffs into a small buffer (a quarter of the screen
+ * size on each axis by default), optionally blurred, then upsampled and multiplied over
+ * the rendered scene. Accumulating costs light count times lightmap size; only the final
+ * multiply touches every screen pixel, once per frame.
+ * <p>
+ * Light colours saturate at full brightness: lit areas show the scene as drawn,
+ * unlit areas are darkened to the ambient colour.
+ */
+public class LightMap {
+    private static final int DEFAULT_SCALE = 4;
+    private static final int INITIAL_LIGHTS = 32;
+
+    private final int width, height;
+    private final int scale;
+    private final int mapWidth, mapHeight;
+    // Light per lightmap cell, packed 0x00RRGGBB
+    private final int[] light;
+    private final int[] scratch;
+    // Upsampling lookups: source cell and blend weight (0-256) for each screen column and row
+    private final int[] columnCell, columnWeight, rowCell, rowWeight;
+    // Lightmap rows blended vertically for the screen row being shaded
+    private final int[] blendedRow;
+
+    private int ambient;
+    private boolean blur;
+    private float[] lightX, lightY, lightRadius, lightIntensity;
+    private int[] lightColor;
+    private int lightCount;
+    private boolean accumulated;
+
+    /**
+     * Creates a light map at a quarter of the screen resolution.
+     * @param width Screen width in pixels
+     * @param height Screen height in pixels
+     */
+    public LightMap(int width, int height) {
+        this(width, height, DEFAULT_SCALE);
+    }
+
+    /**
+     * @param width Screen width in pixels
+     * @param height Screen height in pixels
+     * @param scale Screen pixels per lightmap cell on each axis
+     */
+    public LightMap(int width, int height, int scale) {
+        if (width <= 0 || height <= 0 || scale <= 0) {
+            throw new IllegalArgumentException("Light map dimensions must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        this.scale = scale;
+        this.mapWidth = (width + scale - 1) / scale;
+        this.mapHeight = (height + scale - 1) / scale;
+        this.light = new int[mapWidth * mapHeight];
+        this.scratch = new int[mapWidth * mapHeight];
+        this.blendedRow = new int[mapWidth];
+        this.columnCell = new int[width];
+        this.columnWeight = new int[width];
+        this.rowCell = new int[height];
+        this.rowWeight = new int[height];
+        buildLookup(columnCell, columnWeight, mapWidth);
+        buildLookup(rowCell, rowWeight, mapHeight);
+
+        this.ambient = 0x000000;
+        this.blur = true;
+        this.lightX = new float[INITIAL_LIGHTS];
+        this.lightY = new float[INITIAL_LIGHTS];
+        this.lightRadius = new float[INITIAL_LIGHTS];
+        this.lightIntensity = new float[INITIAL_LIGHTS];
+        this.lightColor = new int[INITIAL_LIGHTS];
+    }
+
+    /**
+     * Sets the light level of areas no light reaches.
+     */
+    public void setAmbient(Color ambient) {
+        this.ambient = ambient.getRGB() & 0xFFFFFF;
+        accumulated = false;
+    }
+
+    /**
+     * Sets whether the lightmap is blurred before upsampling, which hides its low resolution.
+     * On by default.
+     */
+    public void setBlur(boolean blur) {
+        this.blur = blur;
+        accumulated = false;
+    }
+
+    /**
+     * Adds a light for the next frame.
+     * @param x Centre x in screen pixels
+     * @param y Centre y in screen pixels
+     * @param radius Distance at which the light fades out, in screen pixels
+     * @param color Light colour
+     * @param intensity Brightness multiplier; 1 gives the full colour at the centre
+     */
+    public void addLight(float x, float y, float radius, Color color, float intensity) {
+        addLight(x, y, radius, color.getRGB(), intensity);
+    }
+
+    /**
+     * Adds a light for the next frame.
+     * @param rgb Light colour as 0xRRGGBB
+     */
+    public void addLight(float x, float y, float radius, int rgb, float intensity) {
+        if (radius <= 0 || intensity <= 0) {
+            return;
+        }
+        if (lightCount == lightX.length) {
+            int capacity = lightCount * 2;
+            lightX = Arrays.copyOf(lightX, capacity);
+            lightY = Arrays.copyOf(lightY, capacity);
+            lightRadius = Arrays.copyOf(lightRadius, capacity);
+            lightIntensity = Arrays.copyOf(lightIntensity, capacity);
+            lightColor = Arrays.copyOf(lightColor, capacity);
+        }
+        lightX[lightCount] = x;
+        lightY[lightCount] = y;
+        lightRadius[lightCount] = radius;
+        lightIntensity[lightCount] = intensity;
+        lightColor[lightCount] = rgb & 0xFFFFFF;
+        lightCount++;
+        accumulated = false;
+    }
+
+    /**
+     * Removes all lights, usually at the start of each frame before adding the current ones.
+     */
+    public void clearLights() {
+        lightCount = 0;
+        accumulated = false;
+    }
+
+    public int getLightCount() {
+        return lightCount;
+    }
+
+    /**
+     * Multiplies the lighting over an image, which must be the screen size this map was made for.
+     * @param target An image of TYPE_INT_RGB, TYPE_INT_ARGB or TYPE_INT_ARGB_PRE
+     * @param clip Area to light, or null for the whole image
+     * @return false if the image's pixels can't be written directly
+     */
+    public boolean apply(BufferedImage target, Rectangle clip) {
+        int type = target.getType();
+        WritableRaster raster = target.getRaster();
+        if ((type != BufferedImage.TYPE_INT_RGB && type != BufferedImage.TYPE_INT_ARGB
+                && type != BufferedImage.TYPE_INT_ARGB_PRE)
+            || !(raster.getSampleModel() instanceof SinglePixelPackedSampleModel)) {
+            return false;
+        }
+        if (!accumulated) {
+            accumulate();
+            accumulated = true;
+        }
+
+        DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+        int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+        int offset = buffer.getOffset()
+            - raster.getSampleModelTranslateX()
+            - raster.getSampleModelTranslateY() * stride;
+        int[] pixels = buffer.getData();
+
+        int x0 = 0, y0 = 0;
+        int x1 = Math.min(width, target.getWidth());
+        int y1 = Math.min(height, target.getHeight());
+        if (clip != null) {
+            x0 = Math.max(x0, clip.x);
+            y0 = Math.max(y0, clip.y);
+            x1 = Math.min(x1, clip.x + clip.width);
+            y1 = Math.min(y1, clip.y + clip.height);
+        }
+
+        for (int y = y0; y < y1; y++) {
+            blendRows(rowCell[y], rowWeight[y]);
+            int row = offset + y * stride;
+            for (int x = x0; x < x1; x++) {
+                int cell = columnCell[x];
+                int l = lerp(blendedRow[cell], blendedRow[Math.min(cell + 1, mapWidth - 1)], columnWeight[x]);
+                int p = pixels[row + x];
+                // Scale light from 0-255 to 0-256 so full light leaves pixels unchanged
+                int lr = (l >>> 16) + (l >>> 23);
+                int lg = ((l >>> 8) & 0xFF) + ((l >>> 15) & 1);
+                int lb = (l & 0xFF) + ((l >>> 7) & 1);
+                pixels[row + x] = (p & 0xFF000000)
+                    | ((((p >>> 16) & 0xFF) * lr) >>> 8) << 16
+                    | ((((p >>> 8) & 0xFF) * lg) >>> 8) << 8
+                    | (((p & 0xFF) * lb) >>> 8);
+            }
+        }
+        return true;
+    }
+
+    private void accumulate() {
+        Arrays.fill(light, ambient);
+        for (int i = 0; i < lightCount; i++) {
+            stamp(lightX[i] / scale, lightY[i] / scale, lightRadius[i] / scale, lightColor[i], lightIntensity[i]);
+        }
+        if (blur) {
+            blur();
+        }
+    }
+
+    /**
+     * Adds one light's radial falloff to the cells it reaches.
+     * Coordinates and radius are in lightmap cells.
+     */
+    private void stamp(float cx, float cy, float radius, int rgb, float intensity) {
+        int left = Math.max(0, (int) Math.floor(cx - radius));
+        int top = Math.max(0, (int) Math.floor(cy - radius));
+        int right = Math.min(mapWidth - 1, (int) Math.ceil(cx + radius));
+        int bottom = Math.min(mapHeight - 1, (int) Math.ceil(cy + radius));
+        float inverseRadiusSq = 1.0f / (radius * radius);
+        int srcRB = rgb & 0xFF00FF;
+        int srcG = rgb & 0x00FF00;
+
+        for (int y = top; y <= bottom; y++) {
+            float dy = y + 0.5f - cy;
+            int row = y * mapWidth;
+            for (int x = left; x <= right; x++) {
+                float dx = x + 0.5f - cx;
+                float falloff = 1 - (dx * dx + dy * dy) * inverseRadiusSq;
+                if (falloff <= 0) {
+                    continue;
+                }
+                int a = Math.min(256, (int) (falloff * falloff * intensity * 256));
+                int dst = light[row + x];
+                // Saturating add, two channels at a time
+                int rb = (dst & 0xFF00FF) + (((srcRB * a) >>> 8) & 0xFF00FF);
+                int carry = rb & 0x1000100;
+                rb = (rb | (carry - (carry >>> 8))) & 0xFF00FF;
+                int g = (dst & 0x00FF00) + (((srcG * a) >>> 8) & 0x00FF00);
+                light[row + x] = rb | Math.min(g, 0x00FF00);
+            }
+        }
+    }
+
+    /**
+     * Separable 1-2-1 blur, horizontally into the scratch buffer and vertically back.
+     */
+    private void blur() {
+        for (int y = 0; y < mapHeight; y++) {
+            int row = y * mapWidth;
+            for (int x = 0; x < mapWidth; x++) {
+                scratch[row + x] = blur3(
+                    light[row + Math.max(0, x - 1)], light[row + x], light[row + Math.min(mapWidth - 1, x + 1)]);
+            }
+        }
+        for (int y = 0; y < mapHeight; y++) {
+            int above = Math.max(0, y - 1) * mapWidth;
+            int row = y * mapWidth;
+            int below = Math.min(mapHeight - 1, y + 1) * mapWidth;
+            for (int x = 0; x < mapWidth; x++) {
+                light[row + x] = blur3(scratch[above + x], scratch[row + x], scratch[below + x]);
+            }
+        }
+    }
+
+    private static int blur3(int a, int b, int c) {
+        int rb = ((a & 0xFF00FF) + 2 * (b & 0xFF00FF) + (c & 0xFF00FF)) >>> 2;
+        int g = ((a & 0x00FF00) + 2 * (b & 0x00FF00) + (c & 0x00FF00)) >>> 2;
+        return (rb & 0xFF00FF) | (g & 0x00FF00);
+    }
+
+    /**
+     * Blends two lightmap rows into blendedRow for one screen row.
+     */
+    private void blendRows(int cellRow, int weight) {
+        int top = cellRow * mapWidth;
+        int bottom = Math.min(cellRow + 1, mapHeight - 1) * mapWidth;
+        for (int x = 0; x < mapWidth; x++) {
+            blendedRow[x] = lerp(light[top + x], light[bottom + x], weight);
+        }
+    }
+
+    /**
+     * Interpolates between two packed colours.
+     * @param weight Weight of b, from 0 to 256
+     */
+    private static int lerp(int a, int b, int weight) {
+        int inverse = 256 - weight;
+        int rb = (((a & 0xFF00FF) * inverse + (b & 0xFF00FF) * weight) >>> 8) & 0xFF00FF;
+        int g = (((a & 0x00FF00) * inverse + (b & 0x00FF00) * weight) >>> 8) & 0x00FF00;
+        return rb | g;
+    }
+
+    /**
+     * Maps each screen pixel along one axis to the lightmap cell at or before its centre
+     * and the weight of the next cell.
+     */
+    private void buildLookup(int[] cells, int[] weights, int cellCount) {
+        for (int i = 0; i < cells.length; i++) {
+            float position = Math.max(0, (i + 0.5f) / scale - 0.5f);
+            int cell = Math.min(cellCount - 1, (int) position);
+            cells[i] = cell;
+            weights[i] = Math.round((position - cell) * 256);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -10,6 +10,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Logger;
 
+import com.neostudios.starlight.neolight.Camera;
+
 /**
  * Manages particle effects in the game.
  */
@@ -79,6 +81,51 @@ public class ParticleSystem {
         }
     }
     
+    /**
+     * Renders the particles inside a camera's view, skipping the rest.
+     * The graphics context should already have the camera applied.
+     * @param g The graphics context
+     * @param camera The camera to cull against
+     */
+    public void render(Graphics2D g, Camera camera) {
+        if (!enabled) return;
+        
+        for (List<Particle> particles : emitters.values()) {
+            for (Particle particle : particles) {
+                if (particle.isVisible(camera)) {
+                    particle.render(g);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Draws all particles straight into the rasterizer's target pixels, which is much
+     * faster than going through Graphics2D when there are many particles.
+     * Particles are drawn as circles; their rotation is ignored.
+     * @param rasterizer A rasterizer that has begun drawing into the render buffer
+     * @param camera The camera to draw through, or null to draw in screen coordinates
+     */
+    public void renderRaster(ParticleRasterizer rasterizer, Camera camera) {
+        if (!enabled) return;
+        
+        double offsetX = camera != null ? camera.getX() : 0;
+        double offsetY = camera != null ? camera.getY() : 0;
+        float zoom = camera != null ? (float) camera.getZoom() : 1.0f;
+        for (List<Particle> particles : emitters.values()) {
+            for (int i = 0, n = particles.size(); i < n; i++) {
+                Particle particle = particles.get(i);
+                rasterizer.draw(
+                    (float) ((particle.x - offsetX) * zoom),
+                    (float) ((particle.y - offsetY) * zoom),
+                    particle.size * zoom,
+                    particle.color.getRGB(),
+                    particle.alpha
+                );
+            }
+        }
+    }
+    
     /**
      * Removes a particle emitter.
      * @param name The name of the emitter to remove
@@ -189,6 +236,20 @@ public class ParticleSystem {
         public boolean isDead() {
             return dead;
         }
+        
+        public float getX() { return x; }
+        public float getY() { return y; }
+        public float getSize() { return size; }
+        public Color getColor() { return color; }
+        /** Current opacity from 0 to 1, fading out over the particle's life. */
+        public float getAlpha() { return alpha; }
+        
+        /**
+         * Checks whether the particle lies at least partly inside a camera's view.
+         */
+        public boolean isVisible(Camera camera) {
+            return camera.isVisible(x - size / 2, y - size / 2, size, size);
+        }
     }
     
     /**
@@ -0,0 +1,279 @@
+package com.neostudios.starlight.neolight.postprocess;
+
+import java.util.Arrays;
+
+/**
+ * Makes bright areas glow into their surroundings.
+ * The frame is shrunk to a quarter of its size on each axis, keeping only what is brighter
+ * than the threshold; that is blurred twice in each direction, then smoothly scaled back up
+ * and added over the frame. Scaling up is done one axis at a time, widening the low rows
+ * first, so the pass over every screen pixel only blends two contiguous rows.
+ */
+public class BloomEffect implements PostEffect {
+    private static final int SCALE = 4;
+    private static final int DOWNSAMPLE = 0;
+    private static final int WIDEN = 5;
+    private static final int COMPOSITE = 6;
+    private static final int PASSES = 7;
+
+    private final int radius;
+    private int threshold;
+    private int intensity;
+    // Maps each channel value to its brightness above the threshold, rescaled to 0-255
+    private final int[] brightness = new int[256];
+
+    private int width, height, lowWidth, lowHeight;
+    // Low-resolution glow, 0x00RRGGBB, and the blur's intermediate buffer
+    private int[] glow, scratch;
+    // The glow's rows scaled to the frame's width
+    private int[] wideGlow;
+    // Upsampling lookups, as in LightMap: source cell and next-cell weight (0-256) per screen column and row
+    private int[] columnCells, columnWeights, rowCells, rowWeights;
+    // Per-cell sums for a row of cells, red and blue then green, per worker thread
+    private final ThreadLocal<int[]> sumBuffers = new ThreadLocal<>();
+
+    /**
+     * Creates a bloom with a threshold of 0.7, full intensity and a blur radius of 3 cells.
+     */
+    public BloomEffect() {
+        this(0.7f, 1.0f, 3);
+    }
+
+    /**
+     * @param threshold Brightness, from 0 to 1, above which pixels glow
+     * @param intensity Brightness of the glow, from 0 to 1
+     * @param radius Blur radius in low-resolution cells (four pixels each), up to 64
+     */
+    public BloomEffect(float threshold, float intensity, int radius) {
+        this.radius = Math.max(1, Math.min(64, radius));
+        setThreshold(threshold);
+        setIntensity(intensity);
+    }
+
+    public void setThreshold(float threshold) {
+        this.threshold = Math.max(0, Math.min(254, Math.round(threshold * 255)));
+        for (int c = 0; c < 256; c++) {
+            brightness[c] = Math.max(0, c - this.threshold) * 255 / (255 - this.threshold);
+        }
+    }
+
+    public void setIntensity(float intensity) {
+        this.intensity = Math.max(0, Math.min(256, Math.round(intensity * 256)));
+    }
+
+    @Override
+    public int prepare(int width, int height) {
+        if (width != this.width || height != this.height) {
+            this.width = width;
+            this.height = height;
+            lowWidth = (width + SCALE - 1) / SCALE;
+            lowHeight = (height + SCALE - 1) / SCALE;
+            glow = new int[lowWidth * lowHeight];
+            scratch = new int[lowWidth * lowHeight];
+            wideGlow = new int[lowHeight * width];
+            columnCells = new int[width];
+            columnWeights = new int[width];
+            rowCells = new int[height];
+            rowWeights = new int[height];
+            buildLookup(columnCells, columnWeights, lowWidth);
+            buildLookup(rowCells, rowWeights, lowHeight);
+        }
+        return intensity > 0 ? PASSES : 0;
+    }
+
+    @Override
+    public int getRows(int pass, int height) {
+        return pass == COMPOSITE ? height : lowHeight;
+    }
+
+    @Override
+    public void run(int pass, PixelFrame frame, int firstRow, int endRow) {
+        switch (pass) {
+            case DOWNSAMPLE:
+                downsample(frame, firstRow, endRow);
+                break;
+            case WIDEN:
+                widen(firstRow, endRow);
+                break;
+            case COMPOSITE:
+                composite(frame, firstRow, endRow);
+                break;
+            default:
+                // Passes 1 to 4 blur horizontally then vertically, twice
+                if (pass % 2 == 1) {
+                    blurRows(glow, scratch, firstRow, endRow);
+                } else {
+                    blurColumns(scratch, glow, firstRow, endRow);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Averages each block of SCALE x SCALE pixels and keeps the part above the threshold.
+     * Screen rows are read front to back, summing into one entry per low-resolution cell.
+     */
+    private void downsample(PixelFrame frame, int firstRow, int endRow) {
+        int[] pixels = frame.pixels;
+        int[] sums = rowSums(2 * lowWidth);
+        int fullCells = width / SCALE;
+        for (int cy = firstRow; cy < endRow; cy++) {
+            int y0 = cy * SCALE;
+            int y1 = Math.min(height, y0 + SCALE);
+            Arrays.fill(sums, 0, 2 * lowWidth, 0);
+            for (int y = y0; y < y1; y++) {
+                int row = frame.rowStart(y);
+                // Sum two channels at a time; 16 pixels can't overflow into the next channel
+                for (int cx = 0; cx < fullCells; cx++) {
+                    int i = row + cx * SCALE;
+                    int p0 = pixels[i], p1 = pixels[i + 1], p2 = pixels[i + 2], p3 = pixels[i + 3];
+                    sums[2 * cx] += (p0 & 0xFF00FF) + (p1 & 0xFF00FF) + (p2 & 0xFF00FF) + (p3 & 0xFF00FF);
+                    sums[2 * cx + 1] += (p0 & 0x00FF00) + (p1 & 0x00FF00) + (p2 & 0x00FF00) + (p3 & 0x00FF00);
+                }
+                for (int x = fullCells * SCALE; x < width; x++) {
+                    int p = pixels[row + x];
+                    sums[2 * fullCells] += p & 0xFF00FF;
+                    sums[2 * fullCells + 1] += p & 0x00FF00;
+                }
+            }
+            for (int cx = 0; cx < lowWidth; cx++) {
+                int n = (y1 - y0) * (Math.min(width, cx * SCALE + SCALE) - cx * SCALE);
+                int rb = sums[2 * cx], g = sums[2 * cx + 1];
+                int r = brightness[(rb >>> 16) / n];
+                int gr = brightness[(g >>> 8) / n];
+                int b = brightness[(rb & 0xFFFF) / n];
+                glow[cy * lowWidth + cx] = (r << 16) | (gr << 8) | b;
+            }
+        }
+    }
+
+    /**
+     * Box blur along each low-resolution row, with edge cells repeated.
+     * The window's sums are updated as it slides, so the cost doesn't depend on the radius.
+     */
+    private void blurRows(int[] src, int[] dst, int firstRow, int endRow) {
+        int reciprocal = reciprocal();
+        int last = lowWidth - 1;
+        for (int y = firstRow; y < endRow; y++) {
+            int row = y * lowWidth;
+            int rb = 0, g = 0;
+            for (int k = -radius; k <= radius; k++) {
+                int p = src[row + Math.max(0, Math.min(last, k))];
+                rb += p & 0xFF00FF;
+                g += p & 0x00FF00;
+            }
+            for (int x = 0; x < lowWidth; x++) {
+                dst[row + x] = average(rb, g, reciprocal);
+                int out = src[row + Math.max(0, x - radius)];
+                int in = src[row + Math.min(last, x + radius + 1)];
+                rb += (in & 0xFF00FF) - (out & 0xFF00FF);
+                g += (in & 0x00FF00) - (out & 0x00FF00);
+            }
+        }
+    }
+
+    /**
+     * Box blur along each low-resolution column, for a band of rows.
+     * Sums are kept per column and slid down the band a row at a time.
+     */
+    private void blurColumns(int[] src, int[] dst, int firstRow, int endRow) {
+        int reciprocal = reciprocal();
+        int last = lowHeight - 1;
+        int[] sums = rowSums(2 * lowWidth);
+        Arrays.fill(sums, 0, 2 * lowWidth, 0);
+        for (int k = firstRow - radius; k <= firstRow + radius; k++) {
+            int row = Math.max(0, Math.min(last, k)) * lowWidth;
+            for (int x = 0; x < lowWidth; x++) {
+                int p = src[row + x];
+                sums[2 * x] += p & 0xFF00FF;
+                sums[2 * x + 1] += p & 0x00FF00;
+            }
+        }
+        for (int y = firstRow; y < endRow; y++) {
+            int row = y * lowWidth;
+            int out = Math.max(0, y - radius) * lowWidth;
+            int in = Math.min(last, y + radius + 1) * lowWidth;
+            for (int x = 0; x < lowWidth; x++) {
+                int rb = sums[2 * x], g = sums[2 * x + 1];
+                dst[row + x] = average(rb, g, reciprocal);
+                int po = src[out + x], pi = src[in + x];
+                sums[2 * x] = rb + (pi & 0xFF00FF) - (po & 0xFF00FF);
+                sums[2 * x + 1] = g + (pi & 0x00FF00) - (po & 0x00FF00);
+            }
+        }
+    }
+
+    private int[] rowSums(int length) {
+        int[] sums = sumBuffers.get();
+        if (sums == null || sums.length < length) {
+            sums = new int[length];
+            sumBuffers.set(sums);
+        }
+        return sums;
+    }
+
+    /**
+     * Gets 65536 divided by the blur window size, rounded up so full brightness stays full.
+     */
+    private int reciprocal() {
+        int window = 2 * radius + 1;
+        return (65536 + window - 1) / window;
+    }
+
+    private static int average(int rb, int g, int reciprocal) {
+        int r = ((rb >>> 16) * reciprocal) >>> 16;
+        int b = ((rb & 0xFFFF) * reciprocal) >>> 16;
+        int gr = ((g >>> 8) * reciprocal) >>> 16;
+        return (r << 16) | (gr << 8) | b;
+    }
+
+    /**
+     * Scales the glow's rows up to the frame's width.
+     */
+    private void widen(int firstRow, int endRow) {
+        for (int cy = firstRow; cy < endRow; cy++) {
+            int row = cy * lowWidth;
+            int wideRow = cy * width;
+            for (int x = 0; x < width; x++) {
+                int cell = columnCells[x];
+                wideGlow[wideRow + x] = lerp(glow[row + cell], glow[row + Math.min(cell + 1, lowWidth - 1)],
+                    columnWeights[x]);
+            }
+        }
+    }
+
+    /**
+     * Blends the two widened glow rows around each screen row and adds them to it.
+     */
+    private void composite(PixelFrame frame, int firstRow, int endRow) {
+        PixelKernels kernels = PixelKernels.get();
+        for (int y = firstRow; y < endRow; y++) {
+            int cell = rowCells[y];
+            kernels.addBlended(frame.pixels, frame.rowStart(y), width, wideGlow,
+                cell * width, Math.min(cell + 1, lowHeight - 1) * width, rowWeights[y], intensity);
+        }
+    }
+
+    /**
+     * Interpolates between two packed colours.
+     * @param weight Weight of b, from 0 to 256
+     */
+    private static int lerp(int a, int b, int weight) {
+        int inverse = 256 - weight;
+        int rb = (((a & 0xFF00FF) * inverse + (b & 0xFF00FF) * weight) >>> 8) & 0xFF00FF;
+        int g = (((a & 0x00FF00) * inverse + (b & 0x00FF00) * weight) >>> 8) & 0x00FF00;
+        return rb | g;
+    }
+
+    /**
+     * Maps each pixel along one axis to the cell at or before its centre and the weight of the next cell.
+     */
+    private static void buildLookup(int[] cells, int[] weights, int cellCount) {
+        for (int i = 0; i < cells.length; i++) {
+            float position = Math.max(0, (i + 0.5f) / SCALE - 0.5f);
+            int cell = Math.min(cellCount - 1, (int) position);
+            cells[i] = cell;
+            weights[i] = Math.round((position - cell) * 256);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.neostudios.starlight.neolight.postprocess;
+
+/**
+ * Imitates a CRT monitor: every other row is darkened into a scanline, and columns cycle
+ * through red, green and blue phosphor stripes (an aperture grille).
+ */
+public class CrtEffect implements PostEffect {
+    private float scanlineDarkness;
+    private float maskStrength;
+    private int width;
+    private int[] red, green, blue;
+    private boolean valid;
+
+    /**
+     * @param scanlineDarkness How much darker scanlines are, from 0 to 1
+     * @param maskStrength How much each stripe dims the other two channels, from 0 to 1
+     */
+    public CrtEffect(float scanlineDarkness, float maskStrength) {
+        this.scanlineDarkness = clamp(scanlineDarkness);
+        this.maskStrength = clamp(maskStrength);
+    }
+
+    public void setScanlineDarkness(float scanlineDarkness) {
+        this.scanlineDarkness = clamp(scanlineDarkness);
+    }
+
+    public void setMaskStrength(float maskStrength) {
+        this.maskStrength = clamp(maskStrength);
+        valid = false;
+    }
+
+    @Override
+    public int prepare(int width, int height) {
+        if (!valid || width != this.width) {
+            this.width = width;
+            red = new int[width];
+            green = new int[width];
+            blue = new int[width];
+            int full = 256;
+            int dimmed = Math.round(256 * (1 - maskStrength));
+            for (int x = 0; x < width; x++) {
+                int stripe = x % 3;
+                red[x] = stripe == 0 ? full : dimmed;
+                green[x] = stripe == 1 ? full : dimmed;
+                blue[x] = stripe == 2 ? full : dimmed;
+            }
+            valid = true;
+        }
+        return 1;
+    }
+
+    @Override
+    public void run(int pass, PixelFrame frame, int firstRow, int endRow) {
+        PixelKernels kernels = PixelKernels.get();
+        int scanline = Math.round(256 * (1 - scanlineDarkness));
+        for (int y = firstRow; y < endRow; y++) {
+            kernels.modulate(frame.pixels, frame.rowStart(y), width, red, green, blue, 0,
+                (y & 1) == 0 ? 256 : scanline);
+        }
+    }
+
+    private static float clamp(float value) {
+        return Math.max(0, Math.min(1, value));
+    }
+}
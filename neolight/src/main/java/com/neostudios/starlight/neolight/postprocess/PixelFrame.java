@@ -0,0 +1,40 @@
+package com.neostudios.starlight.neolight.postprocess;
+
+/**
+ * The pixels of the frame being post-processed, as 0xAARRGGBB or 0x00RRGGBB ints.
+ * Row y starts at index offset + y * stride of the pixel array.
+ */
+public final class PixelFrame {
+    final int[] pixels;
+    final int offset;
+    final int stride;
+    final int width;
+    final int height;
+
+    PixelFrame(int[] pixels, int offset, int stride, int width, int height) {
+        this.pixels = pixels;
+        this.offset = offset;
+        this.stride = stride;
+        this.width = width;
+        this.height = height;
+    }
+
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Gets the index of the first pixel of a row.
+     */
+    public int rowStart(int y) {
+        return offset + y * stride;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,94 @@
+package com.neostudios.starlight.neolight.postprocess;
+
+/**
+ * The per-pixel loops effects spend their time in, over one row segment at a time.
+ * This is the portable scalar version. When the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, {@link #get()} returns a subclass that
+ * runs the same loops with the Vector API and uses these versions for the leftover pixels.
+ */
+class PixelKernels {
+    private static final PixelKernels INSTANCE = create();
+
+    /**
+     * Gets the fastest kernels this JVM supports.
+     */
+    static PixelKernels get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Checks whether the Vector API kernels are in use.
+     */
+    boolean isVectorized() {
+        return false;
+    }
+
+    /**
+     * Scales each colour channel by a per-column factor and a per-row factor, keeping alpha.
+     * Factors range from 0 to 256, where 256 leaves the channel unchanged.
+     * @param pixels Pixels to modify
+     * @param offset Index of the first pixel
+     * @param count Number of pixels
+     * @param red Red factor of each pixel
+     * @param green Green factor of each pixel
+     * @param blue Blue factor of each pixel
+     * @param factorOffset Index of the first pixel's factors
+     * @param rowFactor Factor applied to every pixel
+     */
+    void modulate(int[] pixels, int offset, int count, int[] red, int[] green, int[] blue,
+                  int factorOffset, int rowFactor) {
+        for (int i = 0; i < count; i++) {
+            int p = pixels[offset + i];
+            int f = factorOffset + i;
+            int r = (((p >>> 16) & 0xFF) * red[f] * rowFactor) >>> 16;
+            int g = (((p >>> 8) & 0xFF) * green[f] * rowFactor) >>> 16;
+            int b = ((p & 0xFF) * blue[f] * rowFactor) >>> 16;
+            pixels[offset + i] = (p & 0xFF000000) | (r << 16) | (g << 8) | b;
+        }
+    }
+
+    /**
+     * Blends two rows of light and adds the result to the pixels, saturating each channel.
+     * @param pixels Pixels to add to
+     * @param offset Index of the first pixel
+     * @param count Number of pixels
+     * @param source Array holding both rows, 0x00RRGGBB
+     * @param top Index of the first row's first pixel
+     * @param bottom Index of the second row's first pixel
+     * @param weight Weight of the second row, from 0 to 256
+     * @param intensity Scale of the added light, from 0 to 256
+     */
+    void addBlended(int[] pixels, int offset, int count, int[] source, int top, int bottom,
+                    int weight, int intensity) {
+        // Fold the intensity into the blend weights
+        int topWeight = ((256 - weight) * intensity) >>> 8;
+        int bottomWeight = (weight * intensity) >>> 8;
+        for (int i = 0; i < count; i++) {
+            int a = source[top + i];
+            int b = source[bottom + i];
+            int p = pixels[offset + i];
+            // Two channels at a time, with a saturating add
+            int rb = (p & 0xFF00FF)
+                + ((((a & 0xFF00FF) * topWeight + (b & 0xFF00FF) * bottomWeight) >>> 8) & 0xFF00FF);
+            int carry = rb & 0x1000100;
+            rb = (rb | (carry - (carry >>> 8))) & 0xFF00FF;
+            int g = (p & 0x00FF00)
+                + ((((a & 0x00FF00) * topWeight + (b & 0x00FF00) * bottomWeight) >>> 8) & 0x00FF00);
+            pixels[offset + i] = (p & 0xFF000000) | rb | Math.min(g, 0x00FF00);
+        }
+    }
+
+    private static PixelKernels create() {
+        // The incubator module is only there if the JVM was started with --add-modules
+        if (!Boolean.getBoolean("neolight.scalarKernels")
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (PixelKernels) Class.forName(PixelKernels.class.getPackageName() + ".VectorPixelKernels")
+                    .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Fall back to the scalar loops
+            }
+        }
+        return new PixelKernels();
+    }
+}
@@ -0,0 +1,36 @@
+package com.neostudios.starlight.neolight.postprocess;
+
+/**
+ * A full-screen effect run by a {@link PostProcessor}.
+ * An effect is one or more passes. Each pass covers a number of output rows, which the
+ * post processor splits into bands and runs on several threads at once; a pass only starts
+ * once the previous pass has finished on every band.
+ */
+public interface PostEffect {
+    /**
+     * Prepares the effect for a frame, on the thread that called PostProcessor.apply.
+     * Effects allocate or resize their buffers here.
+     * @param width Frame width in pixels
+     * @param height Frame height in pixels
+     * @return The number of passes to run for this frame
+     */
+    int prepare(int width, int height);
+
+    /**
+     * Gets the number of rows a pass writes, which is what is split into bands.
+     * @param pass Pass index
+     * @param height Frame height in pixels
+     */
+    default int getRows(int pass, int height) {
+        return height;
+    }
+
+    /**
+     * Runs a pass over a band of its rows. Called concurrently for disjoint bands.
+     * @param pass Pass index
+     * @param frame The frame being processed
+     * @param firstRow First row of the band
+     * @param endRow Row after the last row of the band
+     */
+    void run(int pass, PixelFrame frame, int firstRow, int endRow);
+}
@@ -0,0 +1,149 @@
+package com.neostudios.starlight.neolight.postprocess;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs an ordered chain of full-screen effects over a frame's pixels, in place.
+ * Each effect pass is split into bands of rows that run in parallel on a fork-join pool.
+ * <p>
+ * The heaviest per-pixel loops use the incubating Vector API when the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}, and plain loops otherwise; see {@link #isVectorized()}.
+ */
+public class PostProcessor {
+    // Bands smaller than this cost more to schedule than they save
+    private static final int MIN_BAND_ROWS = 16;
+
+    private final ForkJoinPool pool;
+    private final List<PostEffect> effects = new ArrayList<>();
+
+    /**
+     * Creates a post processor running on the common fork-join pool.
+     */
+    public PostProcessor() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool The pool to run bands on
+     */
+    public PostProcessor(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Adds an effect to the end of the chain.
+     */
+    public void addEffect(PostEffect effect) {
+        effects.add(effect);
+    }
+
+    public void removeEffect(PostEffect effect) {
+        effects.remove(effect);
+    }
+
+    public void clearEffects() {
+        effects.clear();
+    }
+
+    public List<PostEffect> getEffects() {
+        return Collections.unmodifiableList(effects);
+    }
+
+    public boolean hasEffects() {
+        return !effects.isEmpty();
+    }
+
+    /**
+     * Checks whether the pixel loops run on the Vector API.
+     */
+    public static boolean isVectorized() {
+        return PixelKernels.get().isVectorized();
+    }
+
+    /**
+     * Runs every effect over an image, in order.
+     * @param target An image of TYPE_INT_RGB, TYPE_INT_ARGB or TYPE_INT_ARGB_PRE
+     * @return false if the image's pixels can't be written directly
+     */
+    public boolean apply(BufferedImage target) {
+        int type = target.getType();
+        WritableRaster raster = target.getRaster();
+        if ((type != BufferedImage.TYPE_INT_RGB && type != BufferedImage.TYPE_INT_ARGB
+                && type != BufferedImage.TYPE_INT_ARGB_PRE)
+            || !(raster.getSampleModel() instanceof SinglePixelPackedSampleModel)) {
+            return false;
+        }
+        if (effects.isEmpty()) {
+            return true;
+        }
+
+        DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+        int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+        int offset = buffer.getOffset()
+            - raster.getSampleModelTranslateX()
+            - raster.getSampleModelTranslateY() * stride;
+        PixelFrame frame = new PixelFrame(buffer.getData(), offset, stride, target.getWidth(), target.getHeight());
+
+        for (int e = 0; e < effects.size(); e++) {
+            PostEffect effect = effects.get(e);
+            int passes = effect.prepare(frame.width, frame.height);
+            for (int pass = 0; pass < passes; pass++) {
+                int rows = effect.getRows(pass, frame.height);
+                if (rows > 0) {
+                    runPass(effect, pass, frame, rows);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void runPass(PostEffect effect, int pass, PixelFrame frame, int rows) {
+        // A few bands per worker evens out bands that take longer than others
+        int bands = Math.max(1, Math.min(pool.getParallelism() * 4, rows / MIN_BAND_ROWS));
+        if (bands == 1 || pool.getParallelism() == 1) {
+            effect.run(pass, frame, 0, rows);
+            return;
+        }
+        pool.invoke(new BandTask(effect, pass, frame, rows, bands, 0, bands));
+    }
+
+    /**
+     * Runs a range of bands, splitting it in half until one band is left.
+     */
+    @SuppressWarnings("serial")
+    private static class BandTask extends RecursiveAction {
+        private final PostEffect effect;
+        private final int pass;
+        private final PixelFrame frame;
+        private final int rows, bands, firstBand, endBand;
+
+        BandTask(PostEffect effect, int pass, PixelFrame frame, int rows, int bands, int firstBand, int endBand) {
+            this.effect = effect;
+            this.pass = pass;
+            this.frame = frame;
+            this.rows = rows;
+            this.bands = bands;
+            this.firstBand = firstBand;
+            this.endBand = endBand;
+        }
+
+        @Override
+        protected void compute() {
+            if (endBand - firstBand == 1) {
+                effect.run(pass, frame, (int) ((long) rows * firstBand / bands), (int) ((long) rows * endBand / bands));
+                return;
+            }
+            int middle = (firstBand + endBand) >>> 1;
+            invokeAll(new BandTask(effect, pass, frame, rows, bands, firstBand, middle),
+                new BandTask(effect, pass, frame, rows, bands, middle, endBand));
+        }
+    }
+}
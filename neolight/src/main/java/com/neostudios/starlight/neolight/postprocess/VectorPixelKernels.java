@@ -0,0 +1,70 @@
+package com.neostudios.starlight.neolight.postprocess;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API versions of the pixel kernels, processing as many pixels per instruction
+ * as the CPU's widest vectors hold. Only loaded through PixelKernels.get(), after
+ * checking that the incubator module is present.
+ */
+final class VectorPixelKernels extends PixelKernels {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    boolean isVectorized() {
+        return true;
+    }
+
+    @Override
+    void modulate(int[] pixels, int offset, int count, int[] red, int[] green, int[] blue,
+                  int factorOffset, int rowFactor) {
+        int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            IntVector p = IntVector.fromArray(SPECIES, pixels, offset + i);
+            IntVector r = p.lanewise(VectorOperators.LSHR, 16).and(0xFF)
+                .mul(IntVector.fromArray(SPECIES, red, factorOffset + i)).mul(rowFactor)
+                .lanewise(VectorOperators.LSHR, 16);
+            IntVector g = p.lanewise(VectorOperators.LSHR, 8).and(0xFF)
+                .mul(IntVector.fromArray(SPECIES, green, factorOffset + i)).mul(rowFactor)
+                .lanewise(VectorOperators.LSHR, 16);
+            IntVector b = p.and(0xFF)
+                .mul(IntVector.fromArray(SPECIES, blue, factorOffset + i)).mul(rowFactor)
+                .lanewise(VectorOperators.LSHR, 16);
+            p.and(0xFF000000)
+                .or(r.lanewise(VectorOperators.LSHL, 16))
+                .or(g.lanewise(VectorOperators.LSHL, 8))
+                .or(b)
+                .intoArray(pixels, offset + i);
+        }
+        super.modulate(pixels, offset + i, count - i, red, green, blue, factorOffset + i, rowFactor);
+    }
+
+    @Override
+    void addBlended(int[] pixels, int offset, int count, int[] source, int top, int bottom,
+                    int weight, int intensity) {
+        int topWeight = ((256 - weight) * intensity) >>> 8;
+        int bottomWeight = (weight * intensity) >>> 8;
+        int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            IntVector a = IntVector.fromArray(SPECIES, source, top + i);
+            IntVector b = IntVector.fromArray(SPECIES, source, bottom + i);
+            IntVector p = IntVector.fromArray(SPECIES, pixels, offset + i);
+            // Same packed arithmetic as the scalar loop, one pixel per lane
+            IntVector rb = a.and(0xFF00FF).mul(topWeight).add(b.and(0xFF00FF).mul(bottomWeight))
+                .lanewise(VectorOperators.LSHR, 8).and(0xFF00FF)
+                .add(p.and(0xFF00FF));
+            IntVector carry = rb.and(0x1000100);
+            rb = rb.or(carry.sub(carry.lanewise(VectorOperators.LSHR, 8))).and(0xFF00FF);
+            IntVector g = a.and(0x00FF00).mul(topWeight).add(b.and(0x00FF00).mul(bottomWeight))
+                .lanewise(VectorOperators.LSHR, 8).and(0x00FF00)
+                .add(p.and(0x00FF00))
+                .min(0x00FF00);
+            p.and(0xFF000000).or(rb).or(g).intoArray(pixels, offset + i);
+        }
+        super.addBlended(pixels, offset + i, count - i, source, top + i, bottom + i, weight, intensity);
+    }
+}
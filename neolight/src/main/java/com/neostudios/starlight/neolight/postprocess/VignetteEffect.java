@@ -0,0 +1,64 @@
+package com.neostudios.starlight.neolight.postprocess;
+
+/**
+ * Darkens the frame towards its edges and corners.
+ * The falloff is a product of a column term and a row term, so only one factor per
+ * column and one per row are computed; the pixel loop is a multiply.
+ */
+public class VignetteEffect implements PostEffect {
+    private float strength;
+    private int width, height;
+    private int[] columnFactors;
+    private int[] rowFactors;
+    private boolean valid;
+
+    /**
+     * @param strength How strongly the edges darken; 0 leaves the frame unchanged, 1 is a typical vignette
+     */
+    public VignetteEffect(float strength) {
+        setStrength(strength);
+    }
+
+    public void setStrength(float strength) {
+        this.strength = Math.max(0, strength);
+        valid = false;
+    }
+
+    public float getStrength() {
+        return strength;
+    }
+
+    @Override
+    public int prepare(int width, int height) {
+        if (!valid || width != this.width || height != this.height) {
+            this.width = width;
+            this.height = height;
+            columnFactors = falloff(width);
+            rowFactors = falloff(height);
+            valid = true;
+        }
+        return 1;
+    }
+
+    @Override
+    public void run(int pass, PixelFrame frame, int firstRow, int endRow) {
+        PixelKernels kernels = PixelKernels.get();
+        for (int y = firstRow; y < endRow; y++) {
+            kernels.modulate(frame.pixels, frame.rowStart(y), width,
+                columnFactors, columnFactors, columnFactors, 0, rowFactors[y]);
+        }
+    }
+
+    /**
+     * Computes (4t(1 - t))^(strength / 4) for each position t across an axis, from 0 to 256.
+     * Multiplying the column and row terms gives the classic (16uv(1 - u)(1 - v))^(strength / 4) vignette.
+     */
+    private int[] falloff(int size) {
+        int[] factors = new int[size];
+        for (int i = 0; i < size; i++) {
+            double t = (i + 0.5) / size;
+            factors[i] = (int) Math.round(256 * Math.pow(4 * t * (1 - t), strength * 0.25));
+        }
+        return factors;
+    }
+}
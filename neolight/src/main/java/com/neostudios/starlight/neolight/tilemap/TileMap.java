@@ -0,0 +1,104 @@
+package com.neostudios.starlight.neolight.tilemap;
+
+import java.util.Arrays;
+
+/**
+ * A grid of tile IDs stored in a flat primitive array.
+ * The map is divided into square chunks; each chunk has a version number that
+ * changes whenever one of its tiles does, so renderers know what to redraw.
+ */
+public class TileMap {
+    /** Tile ID for an empty cell, which is not drawn. */
+    public static final short EMPTY = 0;
+
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final int chunkSize;
+    private final int chunksX;
+    private final int chunksY;
+    private final short[] tiles;
+    private final int[] chunkVersions;
+
+    /**
+     * Creates an empty tile map.
+     * @param width Width in tiles
+     * @param height Height in tiles
+     * @param tileSize Size of one tile in pixels
+     * @param chunkSize Width and height of a chunk in tiles
+     */
+    public TileMap(int width, int height, int tileSize, int chunkSize) {
+        if (width <= 0 || height <= 0 || tileSize <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("Tile map dimensions must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+        this.chunkSize = chunkSize;
+        this.chunksX = (width + chunkSize - 1) / chunkSize;
+        this.chunksY = (height + chunkSize - 1) / chunkSize;
+        this.tiles = new short[width * height];
+        this.chunkVersions = new int[chunksX * chunksY];
+    }
+
+    /**
+     * Gets the tile at a cell.
+     * @return The tile ID, or EMPTY outside the map
+     */
+    public short getTile(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return EMPTY;
+        }
+        return tiles[y * width + x];
+    }
+
+    /**
+     * Sets the tile at a cell. Cells outside the map are ignored.
+     */
+    public void setTile(int x, int y, short id) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return;
+        }
+        int index = y * width + x;
+        if (tiles[index] != id) {
+            tiles[index] = id;
+            chunkVersions[(y / chunkSize) * chunksX + x / chunkSize]++;
+        }
+    }
+
+    /**
+     * Sets every cell in a rectangle to the same tile.
+     */
+    public void fill(int x, int y, int w, int h, short id) {
+        int x0 = Math.max(0, x);
+        int y0 = Math.max(0, y);
+        int x1 = Math.min(width, x + w);
+        int y1 = Math.min(height, y + h);
+        for (int row = y0; row < y1; row++) {
+            Arrays.fill(tiles, row * width + x0, row * width + x1, id);
+        }
+        for (int cy = y0 / chunkSize; cy * chunkSize < y1; cy++) {
+            for (int cx = x0 / chunkSize; cx * chunkSize < x1; cx++) {
+                chunkVersions[cy * chunksX + cx]++;
+            }
+        }
+    }
+
+    /**
+     * Gets the version of a chunk, which changes whenever one of its tiles does.
+     */
+    public int getChunkVersion(int chunkX, int chunkY) {
+        return chunkVersions[chunkY * chunksX + chunkX];
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getTileSize() { return tileSize; }
+    public int getChunkSize() { return chunkSize; }
+    public int getChunksX() { return chunksX; }
+    public int getChunksY() { return chunksY; }
+    /** Width of the whole map in pixels. */
+    public int getPixelWidth() { return width * tileSize; }
+    /** Height of the whole map in pixels. */
+    public int getPixelHeight() { return height * tileSize; }
+}
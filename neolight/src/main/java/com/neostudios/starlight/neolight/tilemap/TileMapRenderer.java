@@ -0,0 +1,174 @@
+package com.neostudios.starlight.neolight.tilemap;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.neostudios.starlight.neolight.AssetManager;
+import com.neostudios.starlight.neolight.Camera;
+
+/**
+ * Draws a tile map from cached chunk images.
+ * Each chunk is rendered once into an image and redrawn only when its tiles change;
+ * each frame only the chunks intersecting the view are blitted. Chunk images are kept
+ * least-recently-used up to a fixed count and reused for newly visible chunks.
+ */
+public class TileMapRenderer {
+    private static final int DEFAULT_MAX_CACHED_CHUNKS = 64;
+
+    private final TileMap map;
+    private final TileSet tileSet;
+    private final int chunkPixels;
+    private final int maxCachedChunks;
+    private final Map<Integer, Chunk> chunks;
+    private final Deque<BufferedImage> freeImages;
+
+    public TileMapRenderer(TileMap map, TileSet tileSet) {
+        this(map, tileSet, DEFAULT_MAX_CACHED_CHUNKS);
+    }
+
+    /**
+     * @param map The tile map
+     * @param tileSet Images for the map's tile IDs; must use the map's tile size
+     * @param maxCachedChunks Maximum number of chunk images kept; should cover at least one screen
+     */
+    public TileMapRenderer(TileMap map, TileSet tileSet, int maxCachedChunks) {
+        if (tileSet.getTileSize() != map.getTileSize()) {
+            throw new IllegalArgumentException("Tile set size " + tileSet.getTileSize()
+                + " does not match map tile size " + map.getTileSize());
+        }
+        this.map = map;
+        this.tileSet = tileSet;
+        this.chunkPixels = map.getChunkSize() * map.getTileSize();
+        this.maxCachedChunks = Math.max(1, maxCachedChunks);
+        this.freeImages = new ArrayDeque<>();
+        this.chunks = new LinkedHashMap<>(32, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Chunk> eldest) {
+                if (size() > TileMapRenderer.this.maxCachedChunks) {
+                    freeImages.push(eldest.getValue().image);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Draws the part of the map inside a view rectangle, with the view's top-left corner at (0, 0).
+     * @param g The graphics context
+     * @param viewX Left edge of the view in map pixels
+     * @param viewY Top edge of the view in map pixels
+     * @param viewWidth Width of the view in pixels
+     * @param viewHeight Height of the view in pixels
+     */
+    public void render(Graphics2D g, int viewX, int viewY, int viewWidth, int viewHeight) {
+        renderChunks(g, viewX, viewY, viewWidth, viewHeight, viewX, viewY);
+    }
+
+    /**
+     * Draws the part of the map inside a camera's view, in world coordinates.
+     * The graphics context should already have the camera applied.
+     * @param g The graphics context
+     * @param camera The camera
+     */
+    public void render(Graphics2D g, Camera camera) {
+        int viewX = (int) Math.floor(camera.getX());
+        int viewY = (int) Math.floor(camera.getY());
+        int viewWidth = (int) Math.ceil(camera.getX() + camera.getViewWidth()) - viewX;
+        int viewHeight = (int) Math.ceil(camera.getY() + camera.getViewHeight()) - viewY;
+        renderChunks(g, viewX, viewY, viewWidth, viewHeight, 0, 0);
+    }
+
+    /**
+     * Blits the chunks intersecting a view rectangle, offset by an origin.
+     */
+    private void renderChunks(Graphics2D g, int viewX, int viewY, int viewWidth, int viewHeight,
+                              int originX, int originY) {
+        int firstX = Math.max(0, Math.floorDiv(viewX, chunkPixels));
+        int firstY = Math.max(0, Math.floorDiv(viewY, chunkPixels));
+        int lastX = Math.min(map.getChunksX() - 1, Math.floorDiv(viewX + viewWidth - 1, chunkPixels));
+        int lastY = Math.min(map.getChunksY() - 1, Math.floorDiv(viewY + viewHeight - 1, chunkPixels));
+
+        for (int cy = firstY; cy <= lastY; cy++) {
+            for (int cx = firstX; cx <= lastX; cx++) {
+                BufferedImage image = chunkImage(cx, cy);
+                g.drawImage(image, cx * chunkPixels - originX, cy * chunkPixels - originY, null);
+            }
+        }
+    }
+
+    /**
+     * Drops all cached chunk images, for example after the tile set changes.
+     */
+    public void invalidate() {
+        chunks.clear();
+        freeImages.clear();
+    }
+
+    /**
+     * Gets the number of chunk images currently cached.
+     */
+    public int getCachedChunkCount() {
+        return chunks.size();
+    }
+
+    private BufferedImage chunkImage(int cx, int cy) {
+        int key = cy * map.getChunksX() + cx;
+        int version = map.getChunkVersion(cx, cy);
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+            BufferedImage image = freeImages.poll();
+            if (image == null) {
+                image = AssetManager.getInstance().createCompatibleImage(chunkPixels, chunkPixels);
+            }
+            chunk = new Chunk(image);
+            drawChunk(chunk, cx, cy, version);
+            chunks.put(key, chunk);
+        } else if (chunk.version != version) {
+            drawChunk(chunk, cx, cy, version);
+        }
+        return chunk.image;
+    }
+
+    private void drawChunk(Chunk chunk, int cx, int cy, int version) {
+        int tileSize = map.getTileSize();
+        int chunkSize = map.getChunkSize();
+        int startX = cx * chunkSize;
+        int startY = cy * chunkSize;
+        Graphics2D g = chunk.image.createGraphics();
+        try {
+            // Clear to transparent, so reused images and empty tiles don't show old content
+            Composite original = g.getComposite();
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, chunkPixels, chunkPixels);
+            g.setComposite(original);
+
+            for (int ty = 0; ty < chunkSize; ty++) {
+                for (int tx = 0; tx < chunkSize; tx++) {
+                    BufferedImage tile = tileSet.getImage(map.getTile(startX + tx, startY + ty));
+                    if (tile != null) {
+                        g.drawImage(tile, tx * tileSize, ty * tileSize, null);
+                    }
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        chunk.version = version;
+    }
+
+    private static final class Chunk {
+        final BufferedImage image;
+        int version;
+
+        Chunk(BufferedImage image) {
+            this.image = image;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.neostudios.starlight.neolight.tilemap;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import com.neostudios.starlight.neolight.AssetManager;
+
+/**
+ * Maps tile IDs to images, pre-scaled to the tile size.
+ */
+public class TileSet {
+    private final int tileSize;
+    private BufferedImage[] images;
+
+    /**
+     * @param tileSize Size of one tile in pixels
+     */
+    public TileSet(int tileSize) {
+        this.tileSize = tileSize;
+        this.images = new BufferedImage[16];
+    }
+
+    /**
+     * Sets the image drawn for a tile ID. The image is scaled to the tile size once, here.
+     * @param id Tile ID (1 or higher; 0 is the empty tile)
+     * @param image The tile image
+     */
+    public void setTile(int id, BufferedImage image) {
+        if (id <= TileMap.EMPTY || id > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Tile ID out of range: " + id);
+        }
+        if (id >= images.length) {
+            images = Arrays.copyOf(images, Math.max(id + 1, images.length * 2));
+        }
+        images[id] = AssetManager.getInstance().getScaledImage(image, tileSize, tileSize);
+    }
+
+    /**
+     * Gets the image for a tile ID.
+     * @return The image, or null for empty or unknown tiles
+     */
+    public BufferedImage getImage(int id) {
+        return id > 0 && id < images.length ? images[id] : null;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+}
@@ -10,6 +10,10 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
+import com.neostudios.starlight.neolight.DirtyRegions;
+import com.neostudios.starlight.neolight.RenderQueue;
+import com.neostudios.starlight.neolight.TextCache;
+
 /**
  * Manages UI elements in the game.
  */
@@ -21,12 +25,18 @@ public class GameUI {
     private final List<UIElement> activeElements;
     private UIElement focusedElement;
     private boolean enabled;
+    // Reused every frame to order elements by layer
+    private final RenderQueue<UIElement> renderQueue;
+    // Areas of removed elements, reported with the next dirty regions
+    private final DirtyRegions removedRegions;
     
     private GameUI() {
         this.elements = new ConcurrentHashMap<>();
         this.activeElements = new ArrayList<>();
         this.focusedElement = null;
         this.enabled = true;
+        this.renderQueue = new RenderQueue<>();
+        this.removedRegions = new DirtyRegions();
     }
     
     public static synchronized GameUI getInstance() {
@@ -59,6 +69,7 @@ public class GameUI {
             if (focusedElement == element) {
                 focusedElement = null;
             }
+            removedRegions.add(element.lastBounds);
             LOGGER.info("Removed UI element: " + elementId);
         }
     }
@@ -82,11 +93,34 @@ public class GameUI {
     public void render(Graphics2D g) {
         if (!enabled) return;
         
-        // Sort elements by layer before rendering
-        activeElements.sort((a, b) -> Integer.compare(a.getLayer(), b.getLayer()));
-        
+        // Order elements by layer; elements on the same layer keep the order they were added in
         for (UIElement element : activeElements) {
-            element.render(g);
+            renderQueue.add(element, RenderQueue.key(element.getLayer(), 0, 0));
+        }
+        renderQueue.sort();
+        
+        for (int i = 0; i < renderQueue.size(); i++) {
+            renderQueue.get(i).render(g);
+        }
+        renderQueue.clear();
+    }
+    
+    /**
+     * Adds the screen areas of UI elements that changed since the last call,
+     * for scenes using dirty-region rendering. Both the old and new area of a
+     * moved or resized element are reported.
+     * @param regions The set to add dirty regions to
+     */
+    public void collectDirtyRegions(DirtyRegions regions) {
+        regions.addAll(removedRegions);
+        removedRegions.clear();
+        for (UIElement element : elements.values()) {
+            if (element.isDirty()) {
+                regions.add(element.lastBounds);
+                element.lastBounds.setBounds(element.getX(), element.getY(), element.getWidth() + 1, element.getHeight() + 1);
+                regions.add(element.lastBounds);
+                element.clearDirty();
+            }
         }
     }
     
@@ -113,12 +147,10 @@ public class GameUI {
     public void handleMouseClicked(MouseEvent e) {
         if (!enabled) return;
         
-        for (UIElement element : activeElements) {
-            if (element.contains(e.getX(), e.getY())) {
-                element.onClick();
-                focusedElement = element;
-                break;
-            }
+        UIElement element = elementAt(e.getX(), e.getY());
+        if (element != null) {
+            element.onClick();
+            focusedElement = element;
         }
     }
     
@@ -129,11 +161,9 @@ public class GameUI {
     public void handleMousePressed(MouseEvent e) {
         if (!enabled) return;
         
-        for (UIElement element : activeElements) {
-            if (element.contains(e.getX(), e.getY())) {
-                element.onMouseDown();
-                break;
-            }
+        UIElement element = elementAt(e.getX(), e.getY());
+        if (element != null) {
+            element.onMouseDown();
         }
     }
     
@@ -144,12 +174,25 @@ public class GameUI {
     public void handleMouseReleased(MouseEvent e) {
         if (!enabled) return;
         
+        UIElement element = elementAt(e.getX(), e.getY());
+        if (element != null) {
+            element.onMouseUp();
+        }
+    }
+    
+    /**
+     * Finds the element drawn on top at a point: the one on the highest layer, or on the
+     * same layer the one drawn last.
+     * @return The element, or null if there is none at the point
+     */
+    private UIElement elementAt(int x, int y) {
+        UIElement topmost = null;
         for (UIElement element : activeElements) {
-            if (element.contains(e.getX(), e.getY())) {
-                element.onMouseUp();
-                break;
+            if (element.contains(x, y) && (topmost == null || element.getLayer() >= topmost.getLayer())) {
+                topmost = element;
             }
         }
+        return topmost;
     }
     
     /**
@@ -201,6 +244,9 @@ public class GameUI {
      * Clears all UI elements.
      */
     public void clear() {
+        for (UIElement element : elements.values()) {
+            removedRegions.add(element.lastBounds);
+        }
         elements.clear();
         activeElements.clear();
         focusedElement = null;
@@ -220,6 +266,9 @@ public class GameUI {
         private Color foregroundColor;
         private boolean hovered;
         private boolean pressed;
+        private boolean dirty;
+        // Area covered when the dirty regions were last collected (borders extend one pixel)
+        private final Rectangle lastBounds;
         
         public UIElement(String id, int x, int y, int width, int height) {
             this.id = id;
@@ -233,12 +282,29 @@ public class GameUI {
             this.foregroundColor = Color.BLACK;
             this.hovered = false;
             this.pressed = false;
+            this.dirty = true;
+            this.lastBounds = new Rectangle();
         }
         
         public void update(double deltaTime) {
             // Override in subclasses
         }
         
+        /**
+         * Marks this element as needing a redraw. Call from subclasses when their appearance changes.
+         */
+        protected void markDirty() {
+            dirty = true;
+        }
+        
+        public boolean isDirty() {
+            return dirty;
+        }
+        
+        protected void clearDirty() {
+            dirty = false;
+        }
+        
         public abstract void render(Graphics2D g);
         
         public boolean contains(int mouseX, int mouseY) {
@@ -247,20 +313,28 @@ public class GameUI {
         }
         
         public void onMouseEnter() {
-            hovered = true;
+            if (!hovered) {
+                hovered = true;
+                markDirty();
+            }
         }
         
         public void onMouseExit() {
-            hovered = false;
-            pressed = false;
+            if (hovered || pressed) {
+                hovered = false;
+                pressed = false;
+                markDirty();
+            }
         }
         
         public void onMouseDown() {
             pressed = true;
+            markDirty();
         }
         
         public void onMouseUp() {
             pressed = false;
+            markDirty();
         }
         
         public void onClick() {
@@ -270,21 +344,21 @@ public class GameUI {
         // Getters and setters
         public String getId() { return id; }
         public int getX() { return x; }
-        public void setX(int x) { this.x = x; }
+        public void setX(int x) { this.x = x; markDirty(); }
         public int getY() { return y; }
-        public void setY(int y) { this.y = y; }
+        public void setY(int y) { this.y = y; markDirty(); }
         public int getWidth() { return width; }
-        public void setWidth(int width) { this.width = width; }
+        public void setWidth(int width) { this.width = width; markDirty(); }
         public int getHeight() { return height; }
-        public void setHeight(int height) { this.height = height; }
+        public void setHeight(int height) { this.height = height; markDirty(); }
         public boolean isVisible() { return visible; }
-        public void setVisible(boolean visible) { this.visible = visible; }
+        public void setVisible(boolean visible) { this.visible = visible; markDirty(); }
         public int getLayer() { return layer; }
-        public void setLayer(int layer) { this.layer = layer; }
+        public void setLayer(int layer) { this.layer = layer; markDirty(); }
         public Color getBackgroundColor() { return backgroundColor; }
-        public void setBackgroundColor(Color backgroundColor) { this.backgroundColor = backgroundColor; }
+        public void setBackgroundColor(Color backgroundColor) { this.backgroundColor = backgroundColor; markDirty(); }
         public Color getForegroundColor() { return foregroundColor; }
-        public void setForegroundColor(Color foregroundColor) { this.foregroundColor = foregroundColor; }
+        public void setForegroundColor(Color foregroundColor) { this.foregroundColor = foregroundColor; markDirty(); }
         public boolean isHovered() { return hovered; }
         public boolean isPressed() { return pressed; }
     }
@@ -325,11 +399,10 @@ public class GameUI {
             g.drawRect(getX(), getY(), getWidth(), getHeight());
             
             // Draw text
-            g.setFont(font);
-            FontMetrics metrics = g.getFontMetrics();
-            int textX = getX() + (getWidth() - metrics.stringWidth(text)) / 2;
-            int textY = getY() + ((getHeight() - metrics.getHeight()) / 2) + metrics.getAscent();
-            g.drawString(text, textX, textY);
+            TextCache.CachedText cached = TextCache.getInstance().get(text, font, getForegroundColor());
+            int textX = getX() + (getWidth() - cached.getWidth()) / 2;
+            int textY = getY() + ((getHeight() - cached.getHeight()) / 2) + cached.getAscent();
+            cached.draw(g, textX, textY);
         }
         
         @Override
@@ -345,18 +418,22 @@ public class GameUI {
         
         public void setText(String text) {
             this.text = text;
+            markDirty();
         }
         
         public void setFont(Font font) {
             this.font = font;
+            markDirty();
         }
         
         public void setHoverColor(Color hoverColor) {
             this.hoverColor = hoverColor;
+            markDirty();
         }
         
         public void setPressedColor(Color pressedColor) {
             this.pressedColor = pressedColor;
+            markDirty();
         }
     }
     
@@ -378,8 +455,7 @@ public class GameUI {
         
         @Override
         public void render(Graphics2D g) {
-            g.setFont(font);
-            FontMetrics metrics = g.getFontMetrics();
+            TextCache.CachedText cached = TextCache.getInstance().get(text, font, getForegroundColor());
             int textX;
             
             switch (alignment) {
@@ -387,27 +463,29 @@ public class GameUI {
                     textX = getX();
                     break;
                 case 2: // Right
-                    textX = getX() + getWidth() - metrics.stringWidth(text);
+                    textX = getX() + getWidth() - cached.getWidth();
                     break;
                 default: // Center
-                    textX = getX() + (getWidth() - metrics.stringWidth(text)) / 2;
+                    textX = getX() + (getWidth() - cached.getWidth()) / 2;
             }
             
-            int textY = getY() + ((getHeight() - metrics.getHeight()) / 2) + metrics.getAscent();
-            g.setColor(getForegroundColor());
-            g.drawString(text, textX, textY);
+            int textY = getY() + ((getHeight() - cached.getHeight()) / 2) + cached.getAscent();
+            cached.draw(g, textX, textY);
         }
         
         public void setText(String text) {
             this.text = text;
+            markDirty();
         }
         
         public void setFont(Font font) {
             this.font = font;
+            markDirty();
         }
         
         public void setAlignment(int alignment) {
             this.alignment = Math.max(0, Math.min(2, alignment));
+            markDirty();
         }
     }
     
@@ -457,14 +535,39 @@ public class GameUI {
         
         public void addChild(UIElement child) {
             children.add(child);
+            markDirty();
         }
         
         public void removeChild(UIElement child) {
             children.remove(child);
+            markDirty();
         }
         
         public void clearChildren() {
             children.clear();
+            markDirty();
+        }
+        
+        @Override
+        public boolean isDirty() {
+            // Children are drawn inside the panel, so redrawing the panel covers them
+            if (super.isDirty()) {
+                return true;
+            }
+            for (UIElement child : children) {
+                if (child.isDirty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        @Override
+        protected void clearDirty() {
+            super.clearDirty();
+            for (UIElement child : children) {
+                child.clearDirty();
+            }
         }
         
         @Override
@@ -0,0 +1,105 @@
+package com.neostudios.starlight.neolight;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for DirtyRegions merging and clipping.
+ */
+public class DirtyRegionsTest {
+
+    @Test
+    void testOverlappingAndTouchingRegionsMerge() {
+        DirtyRegions regions = new DirtyRegions(800, 600);
+        regions.add(10, 10, 20, 20);
+        regions.add(25, 25, 20, 20);
+        // Touches the merged region's right edge
+        regions.add(45, 10, 5, 5);
+
+        assertEquals(List.of(new Rectangle(10, 10, 40, 35)), regions.getRegions());
+    }
+
+    @Test
+    void testSeparateRegionsStaySeparate() {
+        DirtyRegions regions = new DirtyRegions(800, 600);
+        regions.add(0, 0, 10, 10);
+        regions.add(100, 100, 10, 10);
+
+        assertEquals(2, regions.getRegions().size());
+        assertFalse(regions.isFull());
+    }
+
+    @Test
+    void testRegionMergingAnEarlierPairAbsorbsBoth() {
+        DirtyRegions regions = new DirtyRegions(800, 600);
+        regions.add(0, 0, 10, 10);
+        regions.add(50, 0, 10, 10);
+        regions.add(5, 0, 50, 10);
+
+        assertEquals(List.of(new Rectangle(0, 0, 60, 10)), regions.getRegions());
+    }
+
+    @Test
+    void testTooManyRegionsCollapseIntoTheirBounds() {
+        DirtyRegions regions = new DirtyRegions(800, 600);
+        for (int i = 0; i < 5; i++) {
+            regions.add(i * 100, i * 50, 10, 10);
+        }
+
+        assertEquals(List.of(new Rectangle(0, 0, 410, 210)), regions.getRegions());
+    }
+
+    @Test
+    void testLargeAreaCollapsesToFullScreen() {
+        DirtyRegions regions = new DirtyRegions(100, 100);
+        regions.add(0, 0, 100, 80);
+
+        assertTrue(regions.isFull());
+        assertEquals(List.of(new Rectangle(0, 0, 100, 100)), regions.getRegions());
+        // Further regions change nothing
+        regions.add(10, 90, 5, 5);
+        assertEquals(1, regions.getRegions().size());
+    }
+
+    @Test
+    void testRegionsAreClippedToTheScreen() {
+        DirtyRegions regions = new DirtyRegions(100, 100);
+        regions.add(-10, 90, 20, 20);
+        regions.add(200, 200, 10, 10);
+        regions.add(5, 5, 0, 10);
+
+        assertEquals(List.of(new Rectangle(0, 90, 10, 10)), regions.getRegions());
+    }
+
+    @Test
+    void testAddAllCopiesRegionsAndFullState() {
+        DirtyRegions scene = new DirtyRegions();
+        scene.add(-50, -50, 60, 60);
+        DirtyRegions screen = new DirtyRegions(100, 100);
+        screen.addAll(scene);
+        assertEquals(List.of(new Rectangle(0, 0, 10, 10)), screen.getRegions());
+
+        scene.addAll();
+        // An unbounded set has no area to report when full
+        assertTrue(scene.getRegions().isEmpty());
+        screen.addAll(scene);
+        assertTrue(screen.isFull());
+    }
+
+    @Test
+    void testClearEmptiesTheSet() {
+        DirtyRegions regions = new DirtyRegions(100, 100);
+        assertTrue(regions.isEmpty());
+        regions.addAll();
+        assertFalse(regions.isEmpty());
+        regions.clear();
+        assertTrue(regions.isEmpty());
+        assertFalse(regions.isFull());
+    }
+}
@@ -0,0 +1,60 @@
+package com.neostudios.starlight.neolight;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the engine's fixed-timestep loop, run headless.
+ */
+public class FixedTimestepTest {
+
+    @Test
+    void testTicksCoverElapsedTime() {
+        CountingScene scene = new CountingScene();
+        NeoLightEngine engine = createEngine(60, 5, scene);
+        engine.stepFrames(30, 1.0 / 30);
+        assertEquals(60, scene.updates);
+        assertEquals(1.0 / 60, scene.lastDelta, 1e-12);
+    }
+
+    @Test
+    void testCatchUpIsLimited() {
+        CountingScene scene = new CountingScene();
+        NeoLightEngine engine = createEngine(60, 5, scene);
+        // A one-second stall only runs the catch-up limit
+        engine.stepFrames(1, 1.0);
+        assertEquals(5, scene.updates);
+    }
+
+    @Test
+    void testInvalidTickSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> createEngine(0, 5, new CountingScene()));
+        assertThrows(IllegalArgumentException.class, () -> createEngine(-30, 5, new CountingScene()));
+        assertThrows(IllegalArgumentException.class, () -> createEngine(60, 0, new CountingScene()));
+    }
+
+    private static NeoLightEngine createEngine(int tickRate, int maxCatchUpSteps, Scene scene) {
+        EngineConfig config = new EngineConfig();
+        config.headless = true;
+        config.fixedTimestep = true;
+        config.tickRate = tickRate;
+        config.maxCatchUpSteps = maxCatchUpSteps;
+        NeoLightEngine engine = new NeoLightEngine(null, "Test", 64, 64, null, config);
+        engine.getSceneManager().addScene("test", scene);
+        engine.getSceneManager().switchTo("test", null);
+        return engine;
+    }
+
+    private static class CountingScene extends Scene {
+        int updates;
+        double lastDelta;
+
+        @Override
+        public void update(double deltaTime) {
+            updates++;
+            lastDelta = deltaTime;
+        }
+    }
+}
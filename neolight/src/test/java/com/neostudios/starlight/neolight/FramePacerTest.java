@@ -0,0 +1,49 @@
+package com.neostudios.starlight.neolight;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for FramePacer. Only lower bounds on waits are checked, so a busy machine can't fail them.
+ */
+public class FramePacerTest {
+
+    @Test
+    void testRateSetFromAnotherThreadIsApplied() throws Exception {
+        FramePacer pacer = new FramePacer(0);
+        Thread setter = new Thread(() -> pacer.setTargetFps(20));
+        setter.start();
+        setter.join();
+        assertEquals(20, pacer.getTargetFps());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            pacer.sync();
+        }
+        // Three 50 ms frames, counted from the reset
+        assertTrue(System.nanoTime() - start >= 140_000_000L);
+    }
+
+    @Test
+    void testLateFrameIsCounted() throws Exception {
+        FramePacer pacer = new FramePacer(100);
+        pacer.reset();
+        Thread.sleep(15);
+        pacer.sync();
+        assertEquals(1, pacer.getMissedDeadlines());
+        pacer.resetMissedDeadlines();
+        assertEquals(0, pacer.getMissedDeadlines());
+    }
+
+    @Test
+    void testUncappedDoesNotWait() {
+        FramePacer pacer = new FramePacer(0);
+        pacer.reset();
+        for (int i = 0; i < 1000; i++) {
+            pacer.sync();
+        }
+        assertEquals(0, pacer.getMissedDeadlines());
+    }
+}
@@ -0,0 +1,114 @@
+package com.neostudios.starlight.neolight;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for FrameRecorder's Y4M output.
+ */
+public class FrameRecorderTest {
+    private static final int RED = 0xFF0000;
+    private static final int BLUE = 0x0000FF;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testY4mHeaderAndPlaneSizes() throws Exception {
+        // Odd dimensions, so the chroma planes round up
+        Path file = directory.resolve("video.y4m");
+        FrameRecorder recorder = new FrameRecorder(5, 3, file, FrameRecorder.Format.Y4M, 2, 60, 1, 4);
+        for (int i = 0; i < 4; i++) {
+            recorder.frameRendered(() -> image(5, 3, RED));
+        }
+        recorder.stop().get(5, TimeUnit.SECONDS);
+        assertEquals(2, recorder.getWrittenFrames());
+        assertEquals(0, recorder.getDroppedFrames());
+
+        byte[] data = Files.readAllBytes(file);
+        String header = "YUV4MPEG2 W5 H3 F60:2 Ip A1:1 C420jpeg\n";
+        assertEquals(header, new String(data, 0, header.length(), StandardCharsets.US_ASCII));
+
+        int frameSize = "FRAME\n".length() + 5 * 3 + 2 * (3 * 2);
+        assertEquals(header.length() + 2 * frameSize, data.length);
+        for (int frame = 0; frame < 2; frame++) {
+            int start = header.length() + frame * frameSize;
+            assertEquals("FRAME\n", new String(data, start, 6, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void testRedConvertsToFullRangeYuv() throws Exception {
+        Path file = directory.resolve("red.y4m");
+        FrameRecorder recorder = new FrameRecorder(4, 2, file, FrameRecorder.Format.Y4M, 1, 30, 1, 2);
+        byte[] yuv = new byte[4 * 2 + 2 * 2];
+        int[] pixels = new int[4 * 2];
+        java.util.Arrays.fill(pixels, RED);
+        recorder.toYuv420(pixels, yuv);
+        recorder.stop().get(5, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 8; i++) {
+            assertEquals(77, yuv[i] & 0xFF);
+        }
+        assertEquals(85, yuv[8] & 0xFF);
+        assertEquals(85, yuv[9] & 0xFF);
+        assertEquals(255, yuv[10] & 0xFF);
+        assertEquals(255, yuv[11] & 0xFF);
+    }
+
+    @Test
+    void testConversionFailureDoesNotStallEarlierFrames() throws Exception {
+        Path file = directory.resolve("failed.y4m");
+        CountDownLatch failed = new CountDownLatch(1);
+        // The second frame fails while the first is still converting
+        FrameRecorder recorder = new FrameRecorder(4, 4, file, FrameRecorder.Format.Y4M, 1, 60, 2, 4) {
+            @Override
+            void toYuv420(int[] pixels, byte[] yuv) {
+                if (pixels[0] == BLUE) {
+                    failed.countDown();
+                    throw new IllegalStateException("Conversion failed");
+                }
+                try {
+                    failed.await(5, TimeUnit.SECONDS);
+                    // Let the failed frame finish before this one asks for its turn
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.toYuv420(pixels, yuv);
+            }
+        };
+        recorder.frameRendered(() -> image(4, 4, RED));
+        recorder.frameRendered(() -> image(4, 4, BLUE));
+        recorder.frameRendered(() -> image(4, 4, RED));
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+            () -> recorder.stop().get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IOException);
+        // Frames before the failed one are still written; those after it are not
+        assertEquals(1, recorder.getWrittenFrames());
+    }
+
+    private static BufferedImage image(int width, int height, int rgb) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, rgb);
+            }
+        }
+        return image;
+    }
+}
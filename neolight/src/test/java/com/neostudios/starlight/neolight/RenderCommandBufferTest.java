@@ -0,0 +1,126 @@
+package com.neostudios.starlight.neolight;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+import com.neostudios.starlight.neolight.particles.ParticleRasterizer.BlendMode;
+
+/**
+ * Unit tests for RenderCommandBuffer recording and RenderCommandRenderer replay.
+ */
+public class RenderCommandBufferTest {
+
+    @Test
+    void testParticlesWithTheSameBlendModeShareABatch() {
+        RenderCommandBuffer commands = new RenderCommandBuffer();
+        commands.drawParticle(1, 1, 2, 0xFF0000, 1, BlendMode.ALPHA);
+        commands.drawParticle(2, 2, 2, 0x00FF00, 1, BlendMode.ALPHA);
+        commands.drawParticle(3, 3, 2, 0x0000FF, 1, BlendMode.ADDITIVE);
+        commands.fillRect(0, 0, 1, 1, 0xFFFFFFFF);
+        commands.drawParticle(4, 4, 2, 0xFFFFFF, 1, BlendMode.ADDITIVE);
+        // Skipped, so it doesn't start a batch
+        commands.drawParticle(5, 5, 2, 0xFFFFFF, 0, BlendMode.ALPHA);
+
+        assertEquals(4, commands.size());
+        assertEquals(4, commands.getParticleCount());
+        assertEquals(RenderCommandBuffer.PARTICLES, commands.types[0]);
+        assertEquals(2, commands.width[0]);
+        assertEquals(BlendMode.ADDITIVE, commands.refs[1]);
+        assertEquals(2, commands.x[1]);
+        assertEquals(1, commands.width[1]);
+        assertEquals(RenderCommandBuffer.RECT, commands.types[2]);
+        // A rect in between starts a new batch even with the same blend mode
+        assertEquals(RenderCommandBuffer.PARTICLES, commands.types[3]);
+        assertEquals(3, commands.x[3]);
+        assertEquals(1, commands.width[3]);
+    }
+
+    @Test
+    void testBuffersGrowPastTheirInitialCapacity() {
+        RenderCommandBuffer commands = new RenderCommandBuffer();
+        for (int i = 0; i < 200; i++) {
+            commands.fillRect(i, 0, 1, 1, 0xFF000000 | i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            commands.drawParticle(i, 0, 1, i, 1, BlendMode.ALPHA);
+        }
+
+        assertEquals(201, commands.size());
+        assertEquals(1000, commands.getParticleCount());
+        assertEquals(199, commands.x[199]);
+        assertEquals(0xFF0000C7, commands.colors[199]);
+        assertEquals(1000, commands.width[200]);
+        assertEquals(999, (int) commands.particleX[999]);
+        assertEquals(999, commands.particleColor[999]);
+    }
+
+    @Test
+    void testClearDropsReferences() {
+        RenderCommandBuffer commands = new RenderCommandBuffer();
+        commands.drawSprite(solid(2, 2, 0xFFFF0000), 0, 0);
+        commands.drawText("Score", new Font(Font.SANS_SERIF, Font.PLAIN, 12), Color.WHITE, 0, 10);
+        commands.drawParticle(1, 1, 2, 0xFFFFFF, 1, BlendMode.ADDITIVE);
+        commands.clear();
+
+        assertEquals(0, commands.size());
+        assertEquals(0, commands.getParticleCount());
+        for (int i = 0; i < 3; i++) {
+            assertNull(commands.refs[i]);
+            assertNull(commands.fonts[i]);
+            assertNull(commands.textColors[i]);
+        }
+    }
+
+    @Test
+    void testGraphicsAndRasterReplayMatch() {
+        RenderCommandBuffer commands = new RenderCommandBuffer();
+        commands.fillRect(2, 3, 20, 10, 0xFF336699);
+        commands.fillRect(10, 8, 20, 10, 0x80FF8000);
+        commands.drawSprite(solid(6, 6, 0xFF00FF00), 30, 4);
+        commands.drawSprite(solid(6, 6, 0xFFFFFFFF), 32, 6, 6, 6, 0.5f);
+        commands.drawText("Hi", new Font(Font.SANS_SERIF, Font.BOLD, 14), Color.YELLOW, 4, 34);
+
+        BufferedImage expected = solid(48, 40, 0xFF000000);
+        RenderCommandRenderer renderer = new RenderCommandRenderer();
+        Graphics2D g = expected.createGraphics();
+        renderer.render(commands, g);
+        g.dispose();
+        BufferedImage actual = solid(48, 40, 0xFF000000);
+        assertTrue(renderer.render(commands, actual, null));
+
+        // Java2D and the compositor may round blended channels differently
+        int textPixels = 0;
+        for (int y = 0; y < 40; y++) {
+            for (int x = 0; x < 48; x++) {
+                int e = expected.getRGB(x, y), a = actual.getRGB(x, y);
+                for (int shift = 0; shift < 32; shift += 8) {
+                    int difference = Math.abs(((e >>> shift) & 0xFF) - ((a >>> shift) & 0xFF));
+                    assertTrue(difference <= 1, "pixel " + x + "," + y + ": "
+                        + Integer.toHexString(e) + " vs " + Integer.toHexString(a));
+                }
+                if (y > 20 && a != 0xFF000000) {
+                    textPixels++;
+                }
+            }
+        }
+        assertTrue(textPixels > 0, "text was not drawn");
+    }
+
+    private static BufferedImage solid(int width, int height, int argb) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+}
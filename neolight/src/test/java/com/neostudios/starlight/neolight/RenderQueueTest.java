@@ -0,0 +1,87 @@
+package com.neostudios.starlight.neolight;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for RenderQueue ordering.
+ */
+public class RenderQueueTest {
+
+    @Test
+    void testSmallQueueIsStable() {
+        checkSortedAndStable(20, 3);
+    }
+
+    @Test
+    void testRadixSortIsStable() {
+        // Large enough for the radix passes, with many equal keys
+        checkSortedAndStable(5000, 7);
+    }
+
+    @Test
+    void testQueueIsReusedAfterClear() {
+        RenderQueue<Integer> queue = new RenderQueue<>();
+        for (int i = 0; i < 100; i++) {
+            queue.add(i, RenderQueue.key(-i, 0, 0));
+        }
+        queue.sort();
+        assertEquals(99, queue.get(0).intValue());
+        queue.clear();
+        assertEquals(0, queue.size());
+
+        for (int i = 0; i < 40; i++) {
+            queue.add(i, RenderQueue.key(i % 2, 0, 0));
+        }
+        queue.sort();
+        assertEquals(40, queue.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(2 * i, queue.get(i).intValue());
+            assertEquals(2 * i + 1, queue.get(20 + i).intValue());
+        }
+    }
+
+    @Test
+    void testKeyOrdersLayerThenDepthThenTexture() {
+        long[] ascending = {
+            RenderQueue.key(-5, 1000, 9),
+            RenderQueue.key(0, -100, 9),
+            RenderQueue.key(0, -1, 0),
+            RenderQueue.key(0, 0, 0),
+            RenderQueue.key(0, 0, 1),
+            RenderQueue.key(0, 7, 0),
+            RenderQueue.key(3, Integer.MIN_VALUE, 0),
+        };
+        for (int i = 1; i < ascending.length; i++) {
+            assertTrue(Long.compareUnsigned(ascending[i - 1], ascending[i]) < 0, "Key " + i + " out of order");
+        }
+    }
+
+    private static void checkSortedAndStable(int count, int distinctKeys) {
+        Random random = new Random(42);
+        RenderQueue<Integer> queue = new RenderQueue<>();
+        List<long[]> expected = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long key = RenderQueue.key(random.nextInt(distinctKeys) - distinctKeys / 2, random.nextInt(distinctKeys), 0);
+            queue.add(i, key);
+            expected.add(new long[] {key, i});
+        }
+        queue.sort();
+        // List.sort is stable, so it gives the expected order
+        expected.sort(Comparator.comparing((long[] entry) -> entry[0], Long::compareUnsigned));
+
+        assertEquals(count, queue.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(expected.get(i)[0], queue.getKey(i));
+            assertEquals((int) expected.get(i)[1], queue.get(i).intValue());
+            assertEquals((int) expected.get(i)[1], queue.getIndex(i));
+        }
+    }
+}
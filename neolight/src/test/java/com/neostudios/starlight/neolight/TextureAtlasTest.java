@@ -0,0 +1,136 @@
+package com.neostudios.starlight.neolight;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for TextureAtlas shelf packing.
+ */
+public class TextureAtlasTest {
+    private static final TextureAtlas.PageFactory PAGES =
+        (width, height) -> new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+    @Test
+    void testTallestImagesArePackedFirstAlongShelves() {
+        Map<String, BufferedImage> images = new LinkedHashMap<>();
+        images.put("short", image(10, 4, 0xFF0000FF));
+        images.put("tall", image(10, 12, 0xFF00FF00));
+        images.put("medium", image(10, 8, 0xFFFF0000));
+        TextureAtlas atlas = TextureAtlas.pack(images, 64, PAGES);
+
+        assertEquals(1, atlas.getPages().size());
+        assertRegion(atlas, "tall", 0, 1, 1);
+        assertRegion(atlas, "medium", 0, 13, 1);
+        assertRegion(atlas, "short", 0, 25, 1);
+    }
+
+    @Test
+    void testFullShelfStartsANewShelfBelowTheTallest() {
+        Map<String, BufferedImage> images = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            images.put("tile" + i, image(14, 14 - i, 0xFF000000 | i));
+        }
+        TextureAtlas atlas = TextureAtlas.pack(images, 48, PAGES);
+
+        // Three 16-pixel slots fit across; the next shelf starts under the 16-pixel-high first one
+        assertRegion(atlas, "tile0", 0, 1, 1);
+        assertRegion(atlas, "tile2", 0, 33, 1);
+        assertRegion(atlas, "tile3", 0, 1, 17);
+        assertRegion(atlas, "tile4", 0, 17, 17);
+    }
+
+    @Test
+    void testFullPageStartsANewPage() {
+        Map<String, BufferedImage> images = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            images.put("sprite" + i, image(30, 30, 0xFF000000 | i));
+        }
+        TextureAtlas atlas = TextureAtlas.pack(images, 64, PAGES);
+
+        // Four padded 32x32 sprites per page
+        assertEquals(2, atlas.getPages().size());
+        assertEquals(1, atlas.getRegion("sprite4").getPage());
+    }
+
+    @Test
+    void testRegionsHoldTheirImagesWithoutOverlapping() {
+        Map<String, BufferedImage> images = new LinkedHashMap<>();
+        int[] sizes = {5, 17, 9, 23, 3, 12, 30, 7, 15, 11, 20, 8};
+        for (int i = 0; i < sizes.length; i++) {
+            images.put("image" + i, image(sizes[i], sizes[(i + 5) % sizes.length], 0xFF102030 + i * 0x010101));
+        }
+        TextureAtlas atlas = TextureAtlas.pack(images, 64, PAGES);
+
+        List<TextureAtlas.Region> regions = new ArrayList<>(atlas.getRegions().values());
+        assertEquals(images.size(), regions.size());
+        for (TextureAtlas.Region region : regions) {
+            BufferedImage source = images.get(region.getName());
+            BufferedImage page = atlas.getPages().get(region.getPage());
+            Rectangle area = new Rectangle(region.getX(), region.getY(), region.getWidth(), region.getHeight());
+            assertTrue(new Rectangle(0, 0, page.getWidth(), page.getHeight()).contains(area));
+            assertEquals(source.getRGB(0, 0), page.getRGB(region.getX(), region.getY()));
+            assertEquals(source.getRGB(0, 0), region.getImage().getRGB(region.getWidth() - 1, region.getHeight() - 1));
+
+            for (TextureAtlas.Region other : regions) {
+                if (other != region && other.getPage() == region.getPage()) {
+                    // Padding keeps a gap of at least two pixels between images
+                    Rectangle padded = new Rectangle(other.getX() - 1, other.getY() - 1,
+                        other.getWidth() + 2, other.getHeight() + 2);
+                    assertFalse(padded.intersects(area), region.getName() + " overlaps " + other.getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testOversizedImageIsLeftUnpacked() {
+        Map<String, BufferedImage> images = new LinkedHashMap<>();
+        BufferedImage large = image(64, 10, 0xFFFFFFFF);
+        images.put("large", large);
+        TextureAtlas atlas = TextureAtlas.pack(images, 64, PAGES);
+
+        assertEquals(0, atlas.getPages().size());
+        assertEquals(-1, atlas.getRegion("large").getPage());
+        assertSame(large, atlas.getImage("large"));
+        assertNull(atlas.getImage("missing"));
+    }
+
+    @Test
+    void testRegionImageSharesThePageRaster() {
+        Map<String, BufferedImage> images = new LinkedHashMap<>();
+        images.put("sprite", image(8, 8, 0xFF000000));
+        TextureAtlas atlas = TextureAtlas.pack(images, 32, PAGES);
+
+        atlas.getPages().get(0).setRGB(1, 1, 0xFFABCDEF);
+        assertEquals(0xFFABCDEF, atlas.getImage("sprite").getRGB(0, 0));
+    }
+
+    private static void assertRegion(TextureAtlas atlas, String name, int page, int x, int y) {
+        TextureAtlas.Region region = atlas.getRegion(name);
+        assertEquals(page, region.getPage(), name + " page");
+        assertEquals(x, region.getX(), name + " x");
+        assertEquals(y, region.getY(), name + " y");
+    }
+
+    private static BufferedImage image(int width, int height, int argb) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,104 @@
+package com.neostudios.starlight.neolight;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for TripleBuffer.
+ */
+public class TripleBufferTest {
+
+    @Test
+    void testAcquireWithoutPublishKeepsFront() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[1]);
+        int[] front = buffer.getFront();
+        assertFalse(buffer.acquire());
+        assertSame(front, buffer.getFront());
+    }
+
+    @Test
+    void testPublishedFrameIsAcquiredOnce() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[1]);
+        int[] frame = buffer.getBack();
+        frame[0] = 1;
+        buffer.publish();
+        assertNotSame(frame, buffer.getBack());
+
+        assertTrue(buffer.acquire());
+        assertSame(frame, buffer.getFront());
+        assertFalse(buffer.acquire());
+        assertSame(frame, buffer.getFront());
+    }
+
+    @Test
+    void testAcquireSkipsToLatestFrame() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[1]);
+        int[] first = buffer.getBack();
+        buffer.publish();
+        int[] second = buffer.getBack();
+        buffer.publish();
+        // The unseen first frame is handed back to the producer
+        assertSame(first, buffer.getBack());
+
+        assertTrue(buffer.acquire());
+        assertSame(second, buffer.getFront());
+    }
+
+    @Test
+    void testBackAndFrontNeverShareABuffer() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[1]);
+        for (int i = 0; i < 20; i++) {
+            buffer.publish();
+            if (i % 3 == 0) {
+                buffer.acquire();
+            }
+            assertNotSame(buffer.getBack(), buffer.getFront());
+        }
+    }
+
+    @Test
+    void testConsumerSeesIncreasingUnchangingFrames() throws Exception {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[1]);
+        int frames = 200_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 1; i <= frames; i++) {
+                buffer.getBack()[0] = i;
+                buffer.publish();
+            }
+        });
+        AtomicReference<String> error = new AtomicReference<>();
+        Thread consumer = new Thread(() -> {
+            int last = 0;
+            while (last < frames) {
+                if (!buffer.acquire()) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                int value = buffer.getFront()[0];
+                if (value <= last) {
+                    error.set("Frame " + value + " acquired after frame " + last);
+                    return;
+                }
+                Thread.yield();
+                if (buffer.getFront()[0] != value) {
+                    error.set("Frame " + value + " was overwritten while held");
+                    return;
+                }
+                last = value;
+            }
+        });
+        consumer.start();
+        producer.start();
+        producer.join();
+        consumer.join(10_000);
+        assertFalse(consumer.isAlive(), "The consumer never saw the last frame");
+        assertNull(error.get(), error.get());
+    }
+}
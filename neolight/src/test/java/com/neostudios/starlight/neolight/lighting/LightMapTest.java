@@ -0,0 +1,103 @@
+package com.neostudios.starlight.neolight.lighting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for LightMap. With a scale of 1 and no blur, each lightmap cell lights exactly one pixel.
+ */
+public class LightMapTest {
+
+    @Test
+    void testAmbientMultipliesChannelsAndKeepsAlpha() {
+        LightMap lights = unscaled(4, 4);
+        lights.setAmbient(new Color(0x80, 0x80, 0x80));
+        BufferedImage image = filled(4, 4, BufferedImage.TYPE_INT_ARGB, 0xC0C86432);
+
+        assertTrue(lights.apply(image, null));
+        // 0x80 light scales by 129/256
+        assertEquals(0xC0643219, image.getRGB(2, 1));
+    }
+
+    @Test
+    void testFullLightLeavesPixelsUnchanged() {
+        LightMap lights = unscaled(4, 4);
+        lights.setAmbient(Color.WHITE);
+        BufferedImage image = filled(4, 4, BufferedImage.TYPE_INT_RGB, 0xC86432);
+
+        lights.apply(image, null);
+        assertEquals(0xFFC86432, image.getRGB(3, 3));
+    }
+
+    @Test
+    void testLightsSaturateWithoutCarryingIntoOtherChannels() {
+        LightMap lights = unscaled(8, 8);
+        lights.setAmbient(new Color(0xC0, 0xC0, 0xC0));
+        // Two full red lights centred on pixel (4, 4), well past full brightness together
+        lights.addLight(4.5f, 4.5f, 3, 0xFF0000, 1.0f);
+        lights.addLight(4.5f, 4.5f, 3, 0xFF0000, 1.0f);
+        BufferedImage image = filled(8, 8, BufferedImage.TYPE_INT_RGB, 0xFFFFFF);
+
+        lights.apply(image, null);
+        // Red is saturated; green and blue still get only the ambient light
+        assertEquals(0xFFFFC0C0, image.getRGB(4, 4));
+        // Out of reach of the lights
+        assertEquals(0xFFC0C0C0, image.getRGB(0, 0));
+    }
+
+    @Test
+    void testClipLimitsLitArea() {
+        LightMap lights = unscaled(8, 8);
+        BufferedImage image = filled(8, 8, BufferedImage.TYPE_INT_RGB, 0xFFFFFF);
+
+        lights.apply(image, new Rectangle(2, 2, 3, 3));
+        assertEquals(0xFF000000, image.getRGB(2, 2));
+        assertEquals(0xFF000000, image.getRGB(4, 4));
+        assertEquals(0xFFFFFFFF, image.getRGB(1, 2));
+        assertEquals(0xFFFFFFFF, image.getRGB(5, 4));
+    }
+
+    @Test
+    void testSubimageIsLitInPlace() {
+        BufferedImage parent = filled(8, 8, BufferedImage.TYPE_INT_RGB, 0xFFFFFF);
+        BufferedImage view = parent.getSubimage(2, 3, 4, 4);
+        LightMap lights = unscaled(4, 4);
+
+        lights.apply(view, null);
+        assertEquals(0xFF000000, parent.getRGB(2, 3));
+        assertEquals(0xFF000000, parent.getRGB(5, 6));
+        assertEquals(0xFFFFFFFF, parent.getRGB(1, 3));
+        assertEquals(0xFFFFFFFF, parent.getRGB(6, 6));
+        assertEquals(0xFFFFFFFF, parent.getRGB(2, 2));
+        assertEquals(0xFFFFFFFF, parent.getRGB(2, 7));
+    }
+
+    @Test
+    void testUnsupportedImageTypeIsRejected() {
+        LightMap lights = unscaled(4, 4);
+        assertFalse(lights.apply(new BufferedImage(4, 4, BufferedImage.TYPE_3BYTE_BGR), null));
+    }
+
+    private static LightMap unscaled(int width, int height) {
+        LightMap lights = new LightMap(width, height, 1);
+        lights.setBlur(false);
+        return lights;
+    }
+
+    private static BufferedImage filled(int width, int height, int type, int argb) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+}
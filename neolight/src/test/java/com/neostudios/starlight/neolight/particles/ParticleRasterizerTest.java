@@ -0,0 +1,112 @@
+package com.neostudios.starlight.neolight.particles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ParticleRasterizer's direct pixel writes.
+ */
+public class ParticleRasterizerTest {
+
+    @Test
+    void testOpaqueParticleReplacesPixel() {
+        BufferedImage image = filled(5, 5, 0x000000);
+        ParticleRasterizer rasterizer = new ParticleRasterizer();
+        assertTrue(rasterizer.begin(image));
+        rasterizer.draw(2.5f, 2.5f, 1, 0xFF0000, 1.0f);
+
+        assertEquals(0xFFFF0000, image.getRGB(2, 2));
+        assertEquals(0xFF000000, image.getRGB(1, 2));
+    }
+
+    @Test
+    void testHalfOpaqueParticleBlends() {
+        BufferedImage image = filled(3, 3, 0x0000FF);
+        ParticleRasterizer rasterizer = new ParticleRasterizer();
+        rasterizer.begin(image);
+        rasterizer.draw(1.5f, 1.5f, 1, 0xFF0000, 0.5f);
+
+        assertEquals(0xFF7F007F, image.getRGB(1, 1));
+    }
+
+    @Test
+    void testAdditiveBlendingSaturatesEachChannel() {
+        BufferedImage image = filled(4, 1, 0x80FF40);
+        image.setRGB(3, 0, 0x200010);
+        ParticleRasterizer rasterizer = new ParticleRasterizer();
+        rasterizer.setBlendMode(ParticleRasterizer.BlendMode.ADDITIVE);
+        rasterizer.begin(image);
+        rasterizer.draw(0.5f, 0.5f, 1, 0xC0C0C0, 1.0f);
+        rasterizer.draw(3.5f, 0.5f, 1, 0x101010, 1.0f);
+
+        assertEquals(0xFFFFFFFF, image.getRGB(0, 0));
+        // Channels that don't overflow are added without carrying into their neighbours
+        assertEquals(0xFF301020, image.getRGB(3, 0));
+    }
+
+    @Test
+    void testSolidDiscCoversCentreButNotCorners() {
+        BufferedImage image = filled(8, 8, 0x000000);
+        ParticleRasterizer rasterizer = new ParticleRasterizer();
+        rasterizer.setSoftness(0);
+        rasterizer.begin(image);
+        rasterizer.draw(4, 4, 8, 0xFFFFFF, 1.0f);
+
+        assertEquals(0xFFFFFFFF, image.getRGB(3, 3));
+        assertEquals(0xFFFFFFFF, image.getRGB(4, 4));
+        assertEquals(0xFF000000, image.getRGB(0, 0));
+        assertEquals(0xFF000000, image.getRGB(7, 7));
+    }
+
+    @Test
+    void testClipLimitsDrawing() {
+        BufferedImage image = filled(8, 8, 0x000000);
+        ParticleRasterizer rasterizer = new ParticleRasterizer();
+        rasterizer.setSoftness(0);
+        rasterizer.begin(image);
+        rasterizer.setClip(new Rectangle(4, 0, 4, 8));
+        rasterizer.draw(4, 4, 6, 0xFFFFFF, 1.0f);
+
+        assertEquals(0xFF000000, image.getRGB(3, 4));
+        assertEquals(0xFFFFFFFF, image.getRGB(4, 4));
+    }
+
+    @Test
+    void testSubimageIsDrawnInPlace() {
+        BufferedImage parent = filled(8, 8, 0x000000);
+        BufferedImage view = parent.getSubimage(3, 2, 4, 4);
+        ParticleRasterizer rasterizer = new ParticleRasterizer();
+        rasterizer.begin(view);
+        rasterizer.draw(0.5f, 0.5f, 1, 0x00FF00, 1.0f);
+        // Off the view's edge, so nothing is drawn into the parent beyond it
+        rasterizer.draw(-0.5f, 0.5f, 1, 0x00FF00, 1.0f);
+
+        assertEquals(0xFF00FF00, parent.getRGB(3, 2));
+        assertEquals(0xFF000000, parent.getRGB(2, 2));
+    }
+
+    @Test
+    void testUnsupportedImageIsRejected() {
+        BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_3BYTE_BGR);
+        ParticleRasterizer rasterizer = new ParticleRasterizer();
+        assertFalse(rasterizer.begin(image));
+        rasterizer.draw(1.5f, 1.5f, 1, 0xFFFFFF, 1.0f);
+        assertEquals(0xFF000000, image.getRGB(1, 1));
+    }
+
+    private static BufferedImage filled(int width, int height, int rgb) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, rgb);
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,111 @@
+package com.neostudios.starlight.neolight.postprocess;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the pixel kernels. The Vector API kernels must give exactly the same
+ * pixels as the scalar loops, which are also what they run for leftover pixels.
+ */
+public class PixelKernelsTest {
+    private final PixelKernels scalar = new PixelKernels();
+    private final PixelKernels vector = new VectorPixelKernels();
+
+    @Test
+    void testModulateMatchesScalar() {
+        Random random = new Random(1);
+        for (int count : new int[] {1, 7, 33, 101}) {
+            int offset = random.nextInt(5);
+            int[] pixels = randomArray(random, offset + count);
+            int[] red = randomFactors(random, count + 3);
+            int[] green = randomFactors(random, count + 3);
+            int[] blue = randomFactors(random, count + 3);
+            int rowFactor = random.nextInt(257);
+            int[] expected = pixels.clone();
+
+            scalar.modulate(expected, offset, count, red, green, blue, 3, rowFactor);
+            vector.modulate(pixels, offset, count, red, green, blue, 3, rowFactor);
+            assertArrayEquals(expected, pixels, "count " + count);
+        }
+    }
+
+    @Test
+    void testAddBlendedMatchesScalar() {
+        Random random = new Random(2);
+        for (int count : new int[] {1, 7, 33, 101}) {
+            int offset = random.nextInt(5);
+            int[] pixels = randomArray(random, offset + count);
+            int[] source = new int[2 * count + 2];
+            for (int i = 0; i < source.length; i++) {
+                source[i] = random.nextInt() & 0xFFFFFF;
+            }
+            int weight = random.nextInt(257);
+            int intensity = random.nextInt(257);
+            int[] expected = pixels.clone();
+
+            scalar.addBlended(expected, offset, count, source, 1, count + 2, weight, intensity);
+            vector.addBlended(pixels, offset, count, source, 1, count + 2, weight, intensity);
+            assertArrayEquals(expected, pixels, "count " + count);
+        }
+    }
+
+    @Test
+    void testAddBlendedSaturatesAndKeepsAlpha() {
+        for (PixelKernels kernels : new PixelKernels[] {scalar, vector}) {
+            int[] pixels = filled(19, 0x80F0F0F0);
+            pixels[18] = 0x12FF00FF;
+            int[] source = filled(19, 0x404040);
+            source[18] = 0x000100;
+
+            kernels.addBlended(pixels, 0, 19, source, 0, 0, 0, 256);
+            assertEquals(0x80FFFFFF, pixels[0]);
+            assertEquals(0x80FFFFFF, pixels[17]);
+            // Full channels stay full without carrying into their neighbours
+            assertEquals(0x12FF01FF, pixels[18]);
+        }
+    }
+
+    @Test
+    void testModulateByFullFactorsKeepsPixels() {
+        for (PixelKernels kernels : new PixelKernels[] {scalar, vector}) {
+            int[] pixels = filled(19, 0x7FFF8001);
+            int[] full = filled(19, 256);
+            int[] none = new int[19];
+
+            kernels.modulate(pixels, 0, 19, full, full, full, 0, 256);
+            assertEquals(0x7FFF8001, pixels[0]);
+            assertEquals(0x7FFF8001, pixels[18]);
+
+            kernels.modulate(pixels, 0, 19, none, full, none, 0, 256);
+            assertEquals(0x7F008000, pixels[0]);
+            assertEquals(0x7F008000, pixels[18]);
+        }
+    }
+
+    private static int[] randomArray(Random random, int length) {
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextInt();
+        }
+        return values;
+    }
+
+    private static int[] randomFactors(Random random, int length) {
+        int[] factors = new int[length];
+        for (int i = 0; i < length; i++) {
+            factors[i] = random.nextInt(257);
+        }
+        return factors;
+    }
+
+    private static int[] filled(int length, int value) {
+        int[] values = new int[length];
+        Arrays.fill(values, value);
+        return values;
+    }
+}
@@ -0,0 +1,92 @@
+package com.neostudios.starlight.neolight.ui;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.neostudios.starlight.neolight.DirtyRegions;
+import com.neostudios.starlight.neolight.SceneManager;
+
+/**
+ * Checks that UI changes reach the engine's dirty regions through the scene manager.
+ */
+public class UIDirtyRegionsTest {
+    private final SceneManager sceneManager = new SceneManager();
+    private final DirtyRegions regions = new DirtyRegions(800, 600);
+
+    @BeforeEach
+    @AfterEach
+    void clearUI() {
+        UISystem.getInstance().clear();
+        GameUI.getInstance().clear();
+        sceneManager.collectDirtyRegions(regions);
+        regions.clear();
+    }
+
+    @Test
+    void testChangedButtonProducesDirtyRegion() {
+        UISystem.Button button = new UISystem.Button("play", 10, 20, 100, 30, "Play");
+        UISystem.getInstance().addElement(button);
+        sceneManager.collectDirtyRegions(regions);
+        assertTrue(covers(regions, 10, 20, 100, 30), "A new button should be drawn");
+
+        regions.clear();
+        sceneManager.collectDirtyRegions(regions);
+        assertTrue(regions.isEmpty(), "An unchanged button should not be redrawn");
+
+        button.setText("Resume");
+        sceneManager.collectDirtyRegions(regions);
+        assertTrue(covers(regions, 10, 20, 100, 30), "A button with new text should be redrawn");
+        assertFalse(regions.isFull());
+    }
+
+    @Test
+    void testHoveredButtonProducesDirtyRegion() {
+        UISystem.Button button = new UISystem.Button("quit", 50, 60, 80, 20, "Quit");
+        UISystem.getInstance().addElement(button);
+        sceneManager.collectDirtyRegions(regions);
+        regions.clear();
+
+        button.onMouseEnter();
+        sceneManager.collectDirtyRegions(regions);
+        assertTrue(covers(regions, 50, 60, 80, 20));
+    }
+
+    @Test
+    void testMovedGameUIElementReportsOldAndNewArea() {
+        GameUI.Label label = new GameUI.Label("score", 0, 0, 40, 10, "0");
+        GameUI.getInstance().addElement(label);
+        sceneManager.collectDirtyRegions(regions);
+        regions.clear();
+
+        label.setX(200);
+        sceneManager.collectDirtyRegions(regions);
+        assertTrue(covers(regions, 0, 0, 40, 10), "The old area should be redrawn");
+        assertTrue(covers(regions, 200, 0, 40, 10), "The new area should be redrawn");
+    }
+
+    @Test
+    void testRemovedElementProducesDirtyRegion() {
+        GameUI.getInstance().addElement(new GameUI.Label("title", 300, 100, 120, 40, "Starlight"));
+        sceneManager.collectDirtyRegions(regions);
+        regions.clear();
+
+        GameUI.getInstance().removeElement("title");
+        sceneManager.collectDirtyRegions(regions);
+        assertTrue(covers(regions, 300, 100, 120, 40));
+    }
+
+    private static boolean covers(DirtyRegions regions, int x, int y, int width, int height) {
+        for (Rectangle r : regions.getRegions()) {
+            if (r.contains(x, y, width, height)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,87 @@
+package com.neostudios.starlight.neolight.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Canvas;
+import java.awt.event.MouseEvent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that mouse input reaches the element drawn on top.
+ */
+public class UIHitTestingTest {
+    private final StringBuilder clicks = new StringBuilder();
+
+    @BeforeEach
+    @AfterEach
+    void clearUI() {
+        UISystem.getInstance().clear();
+        GameUI.getInstance().clear();
+    }
+
+    @Test
+    void testClickGoesToHighestLayer() {
+        UISystem ui = UISystem.getInstance();
+        ui.addElement(button("background", 0));
+        ui.addElement(button("dialog", 2));
+        ui.addElement(button("panel", 1));
+
+        ui.handleMouseClicked(click(50, 50));
+        assertEquals("dialog", clicks.toString());
+    }
+
+    @Test
+    void testClickGoesToLastAddedOnSameLayer() {
+        UISystem ui = UISystem.getInstance();
+        ui.addElement(button("first", 0));
+        ui.addElement(button("second", 0));
+
+        ui.handleMouseClicked(click(50, 50));
+        assertEquals("second", clicks.toString());
+    }
+
+    @Test
+    void testLayerChangeAfterAddingIsRespected() {
+        GameUI ui = GameUI.getInstance();
+        GameUI.Button top = new GameUI.Button("top", 0, 0, 100, 100, "top");
+        top.setOnClickAction(() -> clicks.append("top"));
+        GameUI.Button bottom = new GameUI.Button("bottom", 0, 0, 100, 100, "bottom");
+        bottom.setOnClickAction(() -> clicks.append("bottom"));
+        // Added first, so only its new layer puts it on top
+        ui.addElement(top);
+        ui.addElement(bottom);
+        top.setLayer(5);
+
+        ui.handleMouseClicked(click(50, 50));
+        assertEquals("top", clicks.toString());
+    }
+
+    @Test
+    void testPressAndReleaseGoToHighestLayer() {
+        UISystem ui = UISystem.getInstance();
+        UISystem.Button top = button("top", 1);
+        UISystem.Button bottom = button("bottom", 0);
+        ui.addElement(bottom);
+        ui.addElement(top);
+
+        ui.handleMousePressed(click(50, 50));
+        assertEquals(true, top.isPressed());
+        assertEquals(false, bottom.isPressed());
+        ui.handleMouseReleased(click(50, 50));
+        assertEquals(false, top.isPressed());
+    }
+
+    private UISystem.Button button(String id, int layer) {
+        UISystem.Button button = new UISystem.Button(id, 0, 0, 100, 100, id);
+        button.setLayer(layer);
+        button.setOnClickAction(() -> clicks.append(id));
+        return button;
+    }
+
+    private static MouseEvent click(int x, int y) {
+        return new MouseEvent(new Canvas(), MouseEvent.MOUSE_CLICKED, 0, 0, x, y, 1, false);
+    }
+}